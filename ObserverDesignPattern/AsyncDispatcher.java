@@ -0,0 +1,383 @@
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+=======================================================================================
+🧠 Asynchronous Notification (Fan-out Dispatcher)
+
+- By default `IplMatch` notifies observers one after another on the publishing thread,
+  so one slow observer delays the score update for everybody else.
+- A `NotificationDispatcher` decides HOW an update reaches the observers:
+    - `SequentialDispatcher` → the classic loop on the caller's thread.
+    - `AsyncDispatcher`      → the caller only enqueues the update and returns.
+- `AsyncDispatcher` works in two stages:
+    1. A single fan-out mailbox receives each update (constant time for the publisher).
+       It is bounded like the observer mailboxes: when fan-out (O(observers) per update)
+       falls a whole queue behind the publisher, the oldest pending update is dropped
+       for everybody and counted in `fanOutDroppedCount()`.
+    2. Fan-out copies the update into a small bounded mailbox per observer.
+       Each mailbox is drained on an executor, so a slow observer only delays itself.
+- Updates for one observer are always delivered in publish order.
+- When an observer's mailbox is full, its `BackpressurePolicy` decides what is dropped.
+
+=======================================================================================
+*/
+
+// One notification, applied to each observer that should receive it
+interface Delivery {
+    void deliverTo(Observer observer);
+}
+
+// Strategy that decides how a delivery reaches the registered observers
+interface NotificationDispatcher {
+    void dispatch(Observer[] observers, Delivery delivery);
+
+    // Called when an observer is registered so the dispatcher can prepare its resources
+    default void observerAdded(Observer observer) {
+    }
+
+    // Called when an observer is removed so the dispatcher can release its resources
+    default void observerRemoved(Observer observer) {
+    }
+
+    // Called by the dispatcher when it gives up on an observer (BackpressurePolicy.EVICT)
+    default void setEvictionListener(Consumer<Observer> listener) {
+    }
+
+    // True when every observer has been notified by the time dispatch() returns
+    default boolean deliversInline() {
+        return false;
+    }
+
+    default void shutdown() {
+    }
+}
+
+// Default strategy - notify each observer in turn on the publishing thread
+class SequentialDispatcher implements NotificationDispatcher {
+    static final SequentialDispatcher INSTANCE = new SequentialDispatcher();
+
+    @Override
+    public boolean deliversInline() {
+        return true;
+    }
+
+    @Override
+    public void dispatch(Observer[] observers, Delivery delivery) {
+        for (Observer observer : observers) {
+            delivery.deliverTo(observer);
+        }
+    }
+}
+
+// Serial message queue drained on an executor - at most one drain runs at a time
+class Mailbox<T> implements Runnable {
+    private static final int DRAIN_BATCH = 64; // Yield the executor thread after this many messages
+
+    private final Queue<T> queue;
+    private final BackpressurePolicy policy;
+    private final long blockTimeoutNanos;
+    private final Consumer<T> handler;
+    private final Executor executor;
+    private final LongAdder policyDrops; // Shared by all mailboxes with the same policy
+    private final Runnable onEvict;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+    private final int capacity;
+    private final ArrayDeque<Waiting<T>> waiting; // BLOCK_WITH_TIMEOUT only - updates waiting for space
+    private volatile boolean evicted;
+
+    // An update waiting for queue space until its deadline
+    private static final class Waiting<T> {
+        final T message;
+        final long deadline;
+
+        Waiting(T message, long deadline) {
+            this.message = message;
+            this.deadline = deadline;
+        }
+    }
+
+    // Unbounded mailbox - never drops
+    Mailbox(Consumer<T> handler, Executor executor) {
+        this(0, BackpressurePolicy.DROP_OLDEST, 0, handler, executor, new LongAdder(), () -> { });
+    }
+
+    Mailbox(int capacity, BackpressurePolicy policy, long blockTimeoutNanos, Consumer<T> handler,
+            Executor executor, LongAdder policyDrops, Runnable onEvict) {
+        this.queue = capacity > 0 ? new ArrayBlockingQueue<>(capacity) : new ConcurrentLinkedQueue<>();
+        this.capacity = capacity;
+        this.waiting = policy == BackpressurePolicy.BLOCK_WITH_TIMEOUT ? new ArrayDeque<>() : null;
+        this.policy = policy;
+        this.blockTimeoutNanos = blockTimeoutNanos;
+        this.handler = handler;
+        this.executor = executor;
+        this.policyDrops = policyDrops;
+        this.onEvict = onEvict;
+    }
+
+    // Enqueue a message; a full queue is handled by the backpressure policy
+    void post(T message) {
+        if (evicted) {
+            return;
+        }
+        if (waiting != null) {
+            postOrWait(message);
+        } else if (!queue.offer(message)) {
+            overflow(message);
+        }
+        schedule();
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    private void overflow(T message) {
+        switch (policy) {
+            case DROP_NEWEST:
+                recordDrops(1);
+                break;
+            case EVICT:
+                evicted = true;
+                int discarded = queue.size() + 1;
+                queue.clear();
+                recordDrops(discarded);
+                onEvict.run();
+                break;
+            default: // DROP_OLDEST and KEEP_LATEST
+                do {
+                    if (queue.poll() != null) {
+                        recordDrops(1);
+                    }
+                } while (!queue.offer(message));
+        }
+    }
+
+    // BLOCK_WITH_TIMEOUT: instead of blocking the caller (the shared fan-out), a full queue
+    // parks the update in this mailbox's waiting room; drains admit it or drop it once it expired
+    private void postOrWait(T message) {
+        synchronized (waiting) {
+            if (waiting.isEmpty() && queue.offer(message)) {
+                return;
+            }
+            if (waiting.size() >= capacity) {
+                recordDrops(1); // Waiting room full as well - the observer is far behind
+                return;
+            }
+            waiting.add(new Waiting<>(message, System.nanoTime() + blockTimeoutNanos));
+        }
+    }
+
+    // Moves waiting updates into the queue while there is space; expired ones are dropped
+    private void admitWaiting() {
+        synchronized (waiting) {
+            long now = System.nanoTime();
+            Waiting<T> next;
+            while ((next = waiting.peek()) != null) {
+                if (next.deadline - now < 0) {
+                    waiting.poll();
+                    recordDrops(1);
+                } else if (queue.offer(next.message)) {
+                    waiting.poll();
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        if (!queue.isEmpty()) {
+            return true;
+        }
+        if (waiting == null) {
+            return false;
+        }
+        synchronized (waiting) {
+            return !waiting.isEmpty();
+        }
+    }
+
+    private void recordDrops(int count) {
+        dropped.add(count);
+        policyDrops.add(count);
+    }
+
+    private void schedule() {
+        if (hasWork() && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false); // Executor shut down (e.g. a replaced dispatcher) - nothing more is delivered
+            }
+        }
+    }
+
+    private T poll() {
+        if (waiting != null) {
+            admitWaiting();
+        }
+        return queue.poll();
+    }
+
+    @Override
+    public void run() {
+        try {
+            T message;
+            for (int i = 0; i < DRAIN_BATCH && (message = poll()) != null; i++) {
+                try {
+                    handler.accept(message);
+                } catch (RuntimeException e) {
+                    // A failing observer must not stop the mailbox
+                    Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, e);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            schedule(); // Re-arm if messages arrived while draining
+        }
+    }
+}
+
+// Async strategy - the publisher only enqueues, observers are notified on the executor
+class AsyncDispatcher implements NotificationDispatcher {
+    static final int DEFAULT_QUEUE_CAPACITY = 256;
+    static final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 50;
+
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final int queueCapacity;
+    private final long blockTimeoutNanos;
+    private final Mailbox<Runnable> fanOut;
+    private final Map<Observer, Mailbox<Delivery>> mailboxes = new ConcurrentHashMap<>();
+    private final LongAdder[] droppedByPolicy = new LongAdder[BackpressurePolicy.values().length];
+    private final LongAdder fanOutDropped = new LongAdder();
+    private volatile Consumer<Observer> evictionListener = observer -> { };
+
+    // Uses virtual threads when the JDK provides them, otherwise a fixed daemon pool (one thread per core)
+    public AsyncDispatcher() {
+        this(defaultExecutor(), DEFAULT_QUEUE_CAPACITY, DEFAULT_BLOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS, true);
+    }
+
+    public AsyncDispatcher(Executor executor, int queueCapacity) {
+        this(executor, queueCapacity, DEFAULT_BLOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public AsyncDispatcher(Executor executor, int queueCapacity, long blockTimeout, TimeUnit unit) {
+        this(executor, queueCapacity, blockTimeout, unit, false);
+    }
+
+    private AsyncDispatcher(Executor executor, int queueCapacity, long blockTimeout, TimeUnit unit,
+                            boolean ownsExecutor) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        }
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.blockTimeoutNanos = unit.toNanos(blockTimeout);
+        this.ownsExecutor = ownsExecutor;
+        this.fanOut = new Mailbox<>(queueCapacity, BackpressurePolicy.DROP_OLDEST, 0, Runnable::run,
+                executor, fanOutDropped, () -> { });
+        for (int i = 0; i < droppedByPolicy.length; i++) {
+            droppedByPolicy[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void dispatch(Observer[] observers, Delivery delivery) {
+        // O(1) for the publisher - fan-out to each observer happens on the executor
+        fanOut.post(() -> {
+            for (Observer observer : observers) {
+                Mailbox<Delivery> mailbox = mailboxes.get(observer);
+                if (mailbox != null) { // Null once the observer was removed
+                    mailbox.post(delivery);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void observerAdded(Observer observer) {
+        mailboxes.computeIfAbsent(observer, this::newMailbox);
+    }
+
+    @Override
+    public void observerRemoved(Observer observer) {
+        mailboxes.remove(observer);
+    }
+
+    @Override
+    public void setEvictionListener(Consumer<Observer> listener) {
+        this.evictionListener = listener;
+    }
+
+    // Number of updates an observer lost because its queue was full
+    public long droppedCount(Observer observer) {
+        Mailbox<Delivery> mailbox = mailboxes.get(observer);
+        return mailbox != null ? mailbox.droppedCount() : 0;
+    }
+
+    // Updates dropped before fan-out because the fan-out stage was a whole queue behind
+    public long fanOutDroppedCount() {
+        return fanOutDropped.sum();
+    }
+
+    // Number of updates dropped across all observers using the given policy
+    public long droppedCount(BackpressurePolicy policy) {
+        return droppedByPolicy[policy.ordinal()].sum();
+    }
+
+    @Override
+    public void shutdown() {
+        if (ownsExecutor && executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private Mailbox<Delivery> newMailbox(Observer observer) {
+        BackpressurePolicy policy = observer.backpressurePolicy();
+        int capacity = policy == BackpressurePolicy.KEEP_LATEST ? 1 : queueCapacity;
+        return new Mailbox<>(capacity, policy, blockTimeoutNanos, delivery -> delivery.deliverTo(observer),
+                executor, droppedByPolicy[policy.ordinal()], () -> {
+                    mailboxes.remove(observer);
+                    evictionListener.accept(observer);
+                });
+    }
+
+    static ExecutorService defaultExecutor() {
+        ExecutorService virtualThreads = virtualThreadExecutor();
+        if (virtualThreads != null) {
+            return virtualThreads;
+        }
+        // Bounded: mailboxes yield their thread every DRAIN_BATCH messages, so slow observers
+        // share the pool instead of each pinning a platform thread of its own
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "observer-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // One virtual thread per task, or null before JDK 21
+    static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+=======================================================================================
+🧠 Backpressure - What to do with a Slow Observer?
+
+- With `AsyncDispatcher` every observer has its own bounded queue.
+- When that queue is full (e.g. a `MobileApp` on a bad network) the observer's
+  policy decides what happens to the next update:
+    - DROP_OLDEST         → discard the oldest queued update (default).
+    - DROP_NEWEST         → discard the update that just arrived.
+    - KEEP_LATEST         → queue holds one update, each new one replaces it.
+    - BLOCK_WITH_TIMEOUT  → the update waits for space, and is dropped on timeout.
+                            It waits in the observer's own waiting room (as large
+                            as its queue), so neither the publisher nor the other
+                            observers wait with it.
+    - EVICT               → unsubscribe the observer from the subject.
+- The dispatcher counts every update dropped under each policy.
+
+=======================================================================================
+*/
+
+enum BackpressurePolicy {
+    DROP_OLDEST,
+    DROP_NEWEST,
+    KEEP_LATEST,
+    BLOCK_WITH_TIMEOUT,
+    EVICT
+}
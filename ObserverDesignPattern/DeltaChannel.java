@@ -0,0 +1,174 @@
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+=======================================================================================
+🧠 Delta Encoding for Remote Observers
+
+- Two consecutive updates usually differ in very few fields (a few runs, one ball).
+- A `DeltaChannel` subscribes to a subject like any `MatchStatusObserver` and keeps,
+  for each of its `DeltaObserver`s, the last state that observer ACKNOWLEDGED.
+    - A new (or resyncing) observer first gets a full snapshot of the latest state -
+      right away from `subscribe()`/`requestResync()` if the channel has seen one,
+      otherwise with the first update.
+    - After that it only gets a `MatchDelta`: a change mask plus the changed fields.
+    - Returning false from `onDelta()` means "not acknowledged" - the next delta is
+      computed against the old state again, so nothing is lost.
+- Being a `MatchStatusObserver`, the channel only carries structured updates:
+  plain `updateMatchScore(String)` updates are dropped (the String has no fields to diff).
+- `MatchDelta.encode()` writes a compact binary form (one mask byte + varints) for
+  remote clients such as `MobileApp` and `GoogleSearch`.
+
+=======================================================================================
+*/
+
+interface DeltaObserver {
+    // Full state - sent with the first update after subscribing or after a resync
+    void onSnapshot(MatchStatus status);
+
+    // Changes against the last acknowledged state; return true to acknowledge
+    boolean onDelta(MatchDelta delta);
+}
+
+// Difference between two match states - reused, only valid during the callback
+final class MatchDelta {
+    private int changedMask;
+    private final int[] values = new int[MatchStatus.FIELD_COUNT];
+
+    void compute(MatchStatus base, MatchStatus target) {
+        changedMask = target.changedFields(base);
+        for (int i = 0; i < MatchStatus.FIELD_COUNT; i++) {
+            values[i] = target.field(i);
+        }
+    }
+
+    int changedMask() {
+        return changedMask;
+    }
+
+    boolean isEmpty() {
+        return changedMask == 0;
+    }
+
+    boolean changed(int field) {
+        return (changedMask & (1 << field)) != 0;
+    }
+
+    // Turns base into the target state
+    void applyTo(MatchStatus base) {
+        for (int i = 0; i < MatchStatus.FIELD_COUNT; i++) {
+            if (changed(i)) {
+                base.setField(i, values[i]);
+            }
+        }
+    }
+
+    // Mask byte followed by one unsigned varint per changed field
+    void encode(ByteBuffer out) {
+        out.put((byte) changedMask);
+        for (int i = 0; i < MatchStatus.FIELD_COUNT; i++) {
+            if (changed(i)) {
+                writeVarint(out, values[i]);
+            }
+        }
+    }
+
+    void decode(ByteBuffer in) {
+        changedMask = in.get() & 0xFF;
+        for (int i = 0; i < MatchStatus.FIELD_COUNT; i++) {
+            if (changed(i)) {
+                values[i] = readVarint(in);
+            }
+        }
+    }
+
+    private static void writeVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
+
+class DeltaChannel implements MatchStatusObserver {
+    // Per-observer delivery state - guarded by the channel
+    private static final class Subscriber {
+        final DeltaObserver observer;
+        final MatchStatus acknowledged = new MatchStatus();
+        boolean needsSnapshot = true;
+
+        Subscriber(DeltaObserver observer) {
+            this.observer = observer;
+        }
+    }
+
+    private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<DeltaObserver, Subscriber> byObserver = new ConcurrentHashMap<>();
+    private final MatchDelta delta = new MatchDelta();
+    private final MatchStatus latest = new MatchStatus(); // Last state received - guarded by this
+    private boolean hasLatest;
+
+    // Sends the latest state as a snapshot right away, if there is one yet
+    public synchronized void subscribe(DeltaObserver observer) {
+        Subscriber subscriber = new Subscriber(observer);
+        if (byObserver.putIfAbsent(observer, subscriber) == null) {
+            subscribers.add(subscriber);
+            sendSnapshotIfKnown(subscriber);
+        }
+    }
+
+    public void unsubscribe(DeltaObserver observer) {
+        Subscriber subscriber = byObserver.remove(observer);
+        if (subscriber != null) {
+            subscribers.remove(subscriber);
+        }
+    }
+
+    // The observer lost its state - send a full snapshot now (or with the next update)
+    public synchronized void requestResync(DeltaObserver observer) {
+        Subscriber subscriber = byObserver.get(observer);
+        if (subscriber != null) {
+            subscriber.needsSnapshot = true;
+            sendSnapshotIfKnown(subscriber);
+        }
+    }
+
+    // Synchronized with subscribe/requestResync, so a snapshot never interleaves with a delta
+    @Override
+    public synchronized void onStatus(MatchStatus status) {
+        latest.copyFrom(status);
+        hasLatest = true;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.needsSnapshot) {
+                sendSnapshotIfKnown(subscriber);
+                continue;
+            }
+            delta.compute(subscriber.acknowledged, status);
+            if (!delta.isEmpty() && subscriber.observer.onDelta(delta)) {
+                subscriber.acknowledged.copyFrom(status);
+            }
+        }
+    }
+
+    private void sendSnapshotIfKnown(Subscriber subscriber) {
+        if (hasLatest) {
+            subscriber.needsSnapshot = false;
+            subscriber.acknowledged.copyFrom(latest);
+            subscriber.observer.onSnapshot(latest);
+        }
+    }
+}
@@ -1,5 +1,9 @@
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /*
 =======================================================================================
@@ -17,7 +21,7 @@ import java.util.List;
 =======================================================================================
 🧠 How Observer Pattern Works in This Code?
 
-- `IplMatch` is the **Subject**. It maintains a list of viewers (observers).
+- `IplMatch` is the **Subject**. It maintains a registry of viewers (observers).
 - `TVDisplay`, `MobileApp`, and `GoogleSearch` are the **Observers**.
 - When the match score updates, `IplMatch` notifies all registered observers.
 - Observers automatically print the new match status without needing to ask for it manually.
@@ -47,74 +51,356 @@ interface Subject {
 // Observer Interface
 interface Observer {
     void update(String matchStatus); // Called when subject updates
+
+    // Called with several coalesced updates (oldest first) - by default only the latest is shown
+    default void updateBatch(List<String> matchStatuses) {
+        update(matchStatuses.get(matchStatuses.size() - 1));
+    }
+
+    // Called with a structured update - String observers get its (shared) rendered text
+    default void onStatus(MatchStatus status) {
+        update(status.toString());
+    }
+
+    // What an async dispatcher does when this observer falls behind
+    default BackpressurePolicy backpressurePolicy() {
+        return BackpressurePolicy.DROP_OLDEST;
+    }
+
+    // How urgently a tiered dispatcher delivers to this observer
+    default DeliveryTier deliveryTier() {
+        return DeliveryTier.STANDARD;
+    }
 }
 
 // Concrete Subject Class - IplMatch
 class IplMatch implements Subject {
-    private List<Observer> viewers = new ArrayList<>(); // List to store registered observers
+    private final ObserverRegistry viewers = new ObserverRegistry(); // Registered observers, safe to change during notify
     private String matchStatus; // State of the match
+    private final MatchStatus structuredStatus = new MatchStatus(); // Reused for every structured update
+    private final Delivery structuredDelivery = observer -> observer.onStatus(structuredStatus);
+    private volatile boolean structured; // Whether the latest update was structured
+    private volatile NotificationDispatcher dispatcher = SequentialDispatcher.INSTANCE; // How observers are notified
+    private volatile UpdateCoalescer coalescer; // Null when every update is delivered immediately
+    private volatile MatchEventLog eventLog; // Null when updates are not persisted
+    private volatile FilterGroup[] filterGroups = new FilterGroup[0]; // One group per distinct filter
+    private final Map<Observer, FilterGroup> filteredObservers = new ConcurrentHashMap<>();
+
+    public IplMatch() {
+        // Collected weak observers are purged by the registry itself
+        viewers.setRemovalListener(entry -> dispatcher.observerRemoved(entry));
+    }
+
+    // Switch between sequential (default) and asynchronous notification; the previous dispatcher is shut down.
+    // Synchronized like addObserver, so no observer is registered with the old dispatcher only.
+    public synchronized void setDispatcher(NotificationDispatcher dispatcher) {
+        dispatcher.setEvictionListener(this::removeObserver);
+        for (Observer observer : viewers.snapshot()) {
+            dispatcher.observerAdded(observer);
+        }
+        for (Observer observer : filteredObservers.keySet()) {
+            dispatcher.observerAdded(observer);
+        }
+        NotificationDispatcher previous = this.dispatcher;
+        this.dispatcher = dispatcher;
+        if (previous != dispatcher) {
+            previous.shutdown();
+        }
+    }
+
+    // Merge updates arriving within the window (or up to maxUpdates) into one batch per observer
+    public void enableCoalescing(long window, TimeUnit unit, int maxUpdates) {
+        disableCoalescing();
+        coalescer = new UpdateCoalescer(window, unit, maxUpdates, this::notifyBatch, this::notifyCoalescedStatus);
+    }
+
+    // Deliver any pending batch and go back to immediate delivery
+    public void disableCoalescing() {
+        UpdateCoalescer current = coalescer;
+        coalescer = null;
+        if (current != null) {
+            current.flush();
+        }
+    }
 
+    // An observer is either a plain viewer or filtered, never both: the dispatcher keeps
+    // one registration (e.g. one mailbox) per observer, which both kinds would share.
     @Override
-    public void addObserver(Observer observer) {
-        viewers.add(observer); // Add observer to list
+    public synchronized void addObserver(Observer observer) {
+        rejectIfFiltered(observer);
+        if (viewers.add(observer)) { // Add observer to registry
+            dispatcher.observerAdded(observer);
+        }
     }
 
+    // Bulk registration for startup - the registry snapshot is copied once, not once per observer
+    public synchronized void addObservers(Collection<? extends Observer> observers) {
+        for (Observer observer : observers) {
+            rejectIfFiltered(observer);
+        }
+        for (Observer observer : viewers.addAll(observers)) {
+            dispatcher.observerAdded(observer);
+        }
+    }
+
+    // Register without keeping the observer alive - it is purged once garbage collected
+    public synchronized void addWeakObserver(Observer observer) {
+        rejectIfFiltered(observer);
+        Observer entry = viewers.addWeak(observer);
+        if (entry != null) {
+            dispatcher.observerAdded(entry);
+        }
+    }
+
+    // Only notified about structured updates the filter accepts
+    public synchronized void addObserver(Observer observer, Predicate<MatchStatus> filter) {
+        if (filteredObservers.containsKey(observer)) {
+            return;
+        }
+        if (viewers.contains(observer)) {
+            throw new IllegalStateException("Observer is already registered without a filter");
+        }
+        FilterGroup group = null;
+        for (FilterGroup existing : filterGroups) {
+            if (existing.filter.equals(filter)) {
+                group = existing;
+                break;
+            }
+        }
+        if (group == null) {
+            group = new FilterGroup(filter);
+            filterGroups = FilterGroup.with(filterGroups, group);
+        }
+        group.observers.add(observer);
+        filteredObservers.put(observer, group);
+        dispatcher.observerAdded(observer);
+    }
+
+    // Synchronized like addObserver, so the registry and the dispatcher are updated together -
+    // a removal between viewers.add and observerAdded would leave a mailbox behind
     @Override
-    public void removeObserver(Observer observer) {
-        viewers.remove(observer); // Remove observer from list
+    public synchronized void removeObserver(Observer observer) {
+        Observer entry = viewers.removeEntry(observer); // Remove observer from registry
+        if (entry != null) {
+            dispatcher.observerRemoved(entry);
+        } else if (filteredObservers.containsKey(observer)) { // Never both - see addObserver
+            removeFilteredObserver(observer);
+        }
+    }
+
+    private void rejectIfFiltered(Observer observer) {
+        if (filteredObservers.containsKey(observer)) {
+            throw new IllegalStateException("Observer is already registered with a filter");
+        }
+    }
+
+    private synchronized void removeFilteredObserver(Observer observer) {
+        FilterGroup group = filteredObservers.remove(observer);
+        if (group != null && group.observers.remove(observer)) {
+            if (group.observers.size() == 0) {
+                filterGroups = FilterGroup.without(filterGroups, group);
+            }
+            dispatcher.observerRemoved(observer);
+        }
+    }
+
+    public int liveObserverCount() {
+        return viewers.liveObserverCount();
+    }
+
+    public long purgedObserverCount() {
+        return viewers.purgedObserverCount();
     }
 
     @Override
     public void notifyObservers() {
+        if (structured) {
+            notifyStructured();
+            return;
+        }
         // Notify all observers by calling their update method
-        for (Observer observer : viewers) {
-            observer.update(matchStatus);
+        String status = matchStatus;
+        dispatcher.dispatch(viewers.snapshot(), observer -> observer.update(status));
+    }
+
+    private void notifyStructured() {
+        NotificationDispatcher current = dispatcher;
+        if (current.deliversInline()) {
+            // Observers are done with the status before we return - no copy needed
+            deliverStatus(current, structuredStatus, structuredDelivery);
+        } else {
+            MatchStatus copy = structuredStatus.copy();
+            deliverStatus(current, copy, observer -> observer.onStatus(copy));
+        }
+    }
+
+    // A coalesced structured update - the status belongs to this flush, so it is never copied
+    private void notifyCoalescedStatus(MatchStatus status) {
+        deliverStatus(dispatcher, status, observer -> observer.onStatus(status));
+    }
+
+    private void deliverStatus(NotificationDispatcher current, MatchStatus status, Delivery delivery) {
+        current.dispatch(viewers.snapshot(), delivery);
+        // Each distinct filter is evaluated once; rejected groups are never touched
+        for (FilterGroup group : filterGroups) {
+            if (group.filter.test(status)) {
+                current.dispatch(group.observers.snapshot(), delivery);
+            }
+        }
+    }
+
+    private void notifyBatch(List<String> statuses) {
+        dispatcher.dispatch(viewers.snapshot(), observer -> observer.updateBatch(statuses));
+    }
+
+    // Record every update in a persistent log so observers can replay what they missed
+    public void setEventLog(MatchEventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    // Replays the logged updates from fromSequence, then continues with live updates
+    public void addObserver(Observer observer, long fromSequence) {
+        MatchEventLog log = eventLog;
+        if (log == null) {
+            throw new IllegalStateException("No event log configured");
+        }
+        long next = log.replay(fromSequence, observer); // Bulk catch-up without blocking the publisher
+        synchronized (log) {
+            log.replay(next, observer); // Updates published in the meantime
+            addObserver(observer);
         }
     }
 
-    // Updates match status and notifies all observers
+    // Updates match status and notifies all observers (or queues it when coalescing)
     public void updateMatchScore(String status) {
+        MatchEventLog log = eventLog;
+        if (log == null) {
+            publishScore(status);
+            return;
+        }
+        synchronized (log) { // Log order and delivery order must match for replaying observers
+            log.append(status);
+            publishScore(status);
+        }
+    }
+
+    // Structured variant of updateMatchScore - allocation-free with the sequential dispatcher
+    // and no event log. The status is copied, so callers may reuse their MatchStatus object.
+    public void updateMatchStatus(MatchStatus status) {
+        MatchEventLog log = eventLog;
+        if (log == null) {
+            publishStatus(status, null);
+            return;
+        }
+        synchronized (log) {
+            publishStatus(status, log);
+        }
+    }
+
+    private void publishScore(String status) {
         this.matchStatus = status;
-        notifyObservers();
+        this.structured = false;
+        UpdateCoalescer current = coalescer;
+        if (current != null) {
+            current.add(status);
+        } else {
+            notifyObservers();
+        }
+    }
+
+    private void publishStatus(MatchStatus status, MatchEventLog log) {
+        int changes = status.changedFields(structuredStatus);
+        structuredStatus.copyFrom(status);
+        structuredStatus.setChanges(changes);
+        this.structured = true;
+        if (log != null) {
+            log.append(structuredStatus); // Fields and change mask, so replay matches live delivery
+        }
+        UpdateCoalescer current = coalescer;
+        if (current != null) {
+            current.add(structuredStatus);
+        } else {
+            notifyStructured();
+        }
     }
 }
 
 // Concrete Observer - TVDisplay
 class TVDisplay implements Observer {
     private String viewerName;
+    private OutputSink out; // Where the update is displayed
 
     public TVDisplay(String viewerName) {
+        this(viewerName, OutputSink.SYSTEM_OUT);
+    }
+
+    public TVDisplay(String viewerName, OutputSink out) {
         this.viewerName = viewerName;
+        this.out = out;
     }
 
     @Override
     public void update(String matchStatus) {
         // Display update on TV screen
-        System.out.println(viewerName + " on TV: Match Update - " + matchStatus);
+        out.println(viewerName + " on TV: Match Update - " + matchStatus);
+    }
+
+    // Broadcast TV must always see the score first
+    @Override
+    public DeliveryTier deliveryTier() {
+        return DeliveryTier.CRITICAL;
     }
 }
 
 // Concrete Observer - MobileApp
 class MobileApp implements Observer {
     private String appName;
+    private OutputSink out; // Where the update is displayed
 
     public MobileApp(String appName) {
+        this(appName, OutputSink.SYSTEM_OUT);
+    }
+
+    public MobileApp(String appName, OutputSink out) {
         this.appName = appName;
+        this.out = out;
     }
 
     @Override
     public void update(String matchStatus) {
         // Display update in Mobile App
-        System.out.println(appName + " Mobile App: Match Update - " + matchStatus);
+        out.println(appName + " Mobile App: Match Update - " + matchStatus);
+    }
+
+    // A phone on a bad network only needs the newest score
+    @Override
+    public BackpressurePolicy backpressurePolicy() {
+        return BackpressurePolicy.KEEP_LATEST;
     }
 }
 
 // Concrete Observer - GoogleSearch
 class GoogleSearch implements Observer {
+    private OutputSink out; // Where the update is displayed
+
+    public GoogleSearch() {
+        this(OutputSink.SYSTEM_OUT);
+    }
+
+    public GoogleSearch(OutputSink out) {
+        this.out = out;
+    }
+
     @Override
     public void update(String matchStatus) {
         // Display update on Google Search
-        System.out.println("GoogleSearch: Match Update - " + matchStatus);
+        out.println("GoogleSearch: Match Update - " + matchStatus);
+    }
+
+    // Search indexing can lag behind
+    @Override
+    public DeliveryTier deliveryTier() {
+        return DeliveryTier.BEST_EFFORT;
     }
 }
 
@@ -124,10 +410,13 @@ class Main {
         // Create the Subject
         IplMatch match = new IplMatch();
 
+        // Shared console sink - lines are written in batches by a background thread
+        OutputSink console = new BufferedOutputSink(1024, 8192, 10, TimeUnit.MILLISECONDS);
+
         // Create Observers
-        Observer tvViewer = new TVDisplay("Star Sports");
-        Observer mobileApp = new MobileApp("JioCinema");
-        Observer google = new GoogleSearch();
+        Observer tvViewer = new TVDisplay("Star Sports", console);
+        Observer mobileApp = new MobileApp("JioCinema", console);
+        Observer google = new GoogleSearch(console);
 
         // Register observers with the match
         match.addObserver(tvViewer);
@@ -135,18 +424,21 @@ class Main {
         match.addObserver(google);
 
         // First match update - all observers notified
-        System.out.println("First Match Update");
+        console.println("First Match Update");
         match.updateMatchScore("CSK: 150/3 IN 18 OVERS");
 
         // Second match update - all observers notified
-        System.out.println("Second Match Update");
+        console.println("Second Match Update");
         match.updateMatchScore("CSK: 180/4 IN 20 OVERS");
 
         // Removing Google Search observer
         match.removeObserver(google);
 
         // Final match update - only TVDisplay and MobileApp notified
-        System.out.println("Final Match Update");
+        console.println("Final Match Update");
         match.updateMatchScore("CSK WON BY 20 RUNS");
+
+        // Write out everything still buffered
+        console.close();
     }
 }
@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+=======================================================================================
+🧠 Persistent Event Log with Replay
+
+- Normally a match update exists only while `notifyObservers()` runs, so a viewer who
+  joins late or reconnects cannot catch up.
+- `MatchEventLog` appends every update to memory-mapped segment files:
+    - Each update gets a sequence number (0, 1, 2, ...).
+    - A record is [int length + 1][byte kind][payload]; a zero header marks the end of
+      a segment. Text updates store UTF-8 bytes, structured updates store every
+      `MatchStatus` field plus its change mask.
+    - When a segment is full, a new one is started (named after its first sequence).
+- Seeking to a sequence is a binary search over the segments plus an in-memory
+  offset index per segment, so it costs O(log segments).
+- `replay(from, observer)` feeds every stored update from `from` onwards to the observer:
+  text through `update()`, structured updates through `onStatus()` - just like live delivery.
+- Reopening a directory recovers the existing segments (each mapped at its file size,
+  so segments written with a larger `segmentSize` are read completely).
+- After `close()`, `append()` and `replay()` throw `IllegalStateException`.
+
+=======================================================================================
+*/
+
+class MatchEventLog implements AutoCloseable {
+    private static final int HEADER_BYTES = 4;
+    // Record kinds - the first payload byte
+    private static final byte TEXT = 0;
+    private static final byte STRUCTURED = 1;
+    private static final int STRUCTURED_BYTES = 1 + 4 * (MatchStatus.FIELD_COUNT + 1);
+
+    // One memory-mapped segment file
+    private static final class Segment {
+        final long baseSequence;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int size; // Mapped bytes - segmentSize, or more for a recovered file
+        volatile int[] offsets = new int[64]; // Record start positions, indexed by sequence - baseSequence
+        volatile int count;
+        int writePosition; // Only touched under the log's lock
+
+        Segment(long baseSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.baseSequence = baseSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.size = buffer.capacity();
+        }
+
+        void addOffset(int offset) {
+            int[] current = offsets;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                offsets = current;
+            }
+            current[count] = offset;
+            count = count + 1; // Publishes the offset to readers
+        }
+
+        // Hands record index to the observer; scratch is reused for structured records
+        void deliver(int index, Observer observer, MatchStatus scratch) {
+            int offset = offsets[index];
+            int payload = offset + HEADER_BYTES;
+            if (buffer.get(payload) == STRUCTURED) {
+                int position = payload + 1;
+                for (int field = 0; field < MatchStatus.FIELD_COUNT; field++, position += 4) {
+                    scratch.setField(field, buffer.getInt(position));
+                }
+                scratch.setChanges(buffer.getInt(position));
+                observer.onStatus(scratch);
+            } else {
+                byte[] bytes = new byte[buffer.getInt(offset) - 2];
+                buffer.get(payload + 1, bytes);
+                observer.update(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>(); // Ordered by baseSequence, guarded by this
+    private long nextSequence;
+    private boolean closed; // Guarded by this
+
+    public MatchEventLog(Path directory, int segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        recover();
+        if (segments.isEmpty()) {
+            roll();
+        }
+    }
+
+    // Appends a text update and returns its sequence number
+    public synchronized long append(String status) {
+        checkOpen();
+        byte[] bytes = status.getBytes(StandardCharsets.UTF_8);
+        Segment active = reserve(1 + bytes.length);
+        int offset = active.writePosition;
+        active.buffer.put(offset + HEADER_BYTES, TEXT);
+        active.buffer.put(offset + HEADER_BYTES + 1, bytes);
+        return commit(active, offset, 1 + bytes.length);
+    }
+
+    // Appends a structured update (fields and change mask) and returns its sequence number
+    public synchronized long append(MatchStatus status) {
+        checkOpen();
+        Segment active = reserve(STRUCTURED_BYTES);
+        int offset = active.writePosition;
+        int position = offset + HEADER_BYTES;
+        active.buffer.put(position++, STRUCTURED);
+        for (int field = 0; field < MatchStatus.FIELD_COUNT; field++, position += 4) {
+            active.buffer.putInt(position, status.field(field));
+        }
+        active.buffer.putInt(position, status.changes());
+        return commit(active, offset, STRUCTURED_BYTES);
+    }
+
+    // Segment with room for a payload of the given size (plus the zero end marker)
+    private Segment reserve(int payloadSize) {
+        int recordSize = HEADER_BYTES + payloadSize;
+        if (recordSize + HEADER_BYTES > segmentSize) {
+            throw new IllegalArgumentException("Update larger than a segment: " + recordSize + " bytes");
+        }
+        Segment active = segments.get(segments.size() - 1);
+        if (active.writePosition + recordSize + HEADER_BYTES > active.size) {
+            active = roll();
+        }
+        return active;
+    }
+
+    private long commit(Segment active, int offset, int payloadSize) {
+        active.buffer.putInt(offset, payloadSize + 1); // Header last, so a torn record reads as the end
+        active.writePosition = offset + HEADER_BYTES + payloadSize;
+        active.addOffset(offset);
+        return nextSequence++;
+    }
+
+    // Sequence number the next append will get
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    // Delivers every stored update from fromSequence onwards; returns the sequence to continue from
+    public long replay(long fromSequence, Observer observer) {
+        List<Segment> view;
+        long end;
+        synchronized (this) {
+            checkOpen();
+            view = new ArrayList<>(segments);
+            end = nextSequence;
+        }
+        long sequence = Math.max(fromSequence, view.get(0).baseSequence);
+        MatchStatus scratch = new MatchStatus(); // Only valid during onStatus, like a live update
+        for (int s = findSegment(view, sequence); s >= 0 && s < view.size() && sequence < end; s++) {
+            Segment segment = view.get(s);
+            int limit = segment.count;
+            for (int i = (int) (sequence - segment.baseSequence); i < limit && sequence < end; i++) {
+                segment.deliver(i, observer, scratch);
+                sequence++;
+            }
+        }
+        return sequence;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("log closed");
+        }
+    }
+
+    // Index of the last segment whose baseSequence <= sequence
+    private static int findSegment(List<Segment> view, long sequence) {
+        int low = 0;
+        int high = view.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (view.get(mid).baseSequence <= sequence) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private Segment roll() {
+        try {
+            Segment segment = open(directory.resolve(String.format("%020d.seg", nextSequence)), nextSequence, segmentSize);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Maps at least minSize bytes - more if the file is already larger
+    private Segment open(Path file, long baseSequence, int minSize) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(minSize, channel.size());
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Segment too large to map: " + file + " (" + size + " bytes)");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new Segment(baseSequence, channel, buffer);
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            Segment segment = open(file, Long.parseLong(name.substring(0, name.length() - 4)), segmentSize);
+            int position = 0;
+            int header;
+            while (position + HEADER_BYTES <= segment.size && (header = segment.buffer.getInt(position)) > 0) {
+                segment.addOffset(position);
+                position += HEADER_BYTES + header - 1;
+            }
+            segment.writePosition = position;
+            segments.add(segment);
+            nextSequence = segment.baseSequence + segment.count;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/*
+=======================================================================================
+🧠 Filtered Subscriptions
+
+- Many observers only care about wickets or the final result, yet every update used
+  to reach every observer, which then had to parse the text to throw it away.
+- `IplMatch.addObserver(observer, filter)` takes a predicate on the structured
+  `MatchStatus`. The subject evaluates it BEFORE dispatching.
+- Observers sharing the same filter object form one group, so each distinct filter
+  is evaluated once per update no matter how many observers use it, and observers
+  whose filter rejects the update cost nothing.
+- Use the shared constants below (or keep one instance of your own filter) so that
+  identical filters really are grouped.
+- Filters need structure, so filtered observers only receive `updateMatchStatus()`
+  updates (coalesced ones included) - plain String updates and batches skip them.
+- An observer is registered either with a filter or without one; registering it
+  both ways throws `IllegalStateException`.
+
+=======================================================================================
+*/
+
+final class MatchFilters {
+    private MatchFilters() {
+    }
+
+    // A wicket fell with this update
+    static final Predicate<MatchStatus> WICKET = status -> status.changed(MatchStatus.FIELD_WICKETS);
+
+    // The match has been decided
+    static final Predicate<MatchStatus> RESULT = status -> status.resultCode() != MatchStatus.IN_PROGRESS;
+
+    // The score moved (runs or wickets)
+    static final Predicate<MatchStatus> SCORE_CHANGE =
+            status -> status.changed(MatchStatus.FIELD_RUNS) || status.changed(MatchStatus.FIELD_WICKETS);
+}
+
+// Observers that share one filter
+final class FilterGroup {
+    final Predicate<MatchStatus> filter;
+    final ObserverRegistry observers = new ObserverRegistry();
+
+    FilterGroup(Predicate<MatchStatus> filter) {
+        this.filter = filter;
+    }
+
+    // Copy-on-write helpers for the subject's group array
+    static FilterGroup[] with(FilterGroup[] groups, FilterGroup group) {
+        FilterGroup[] next = Arrays.copyOf(groups, groups.length + 1);
+        next[groups.length] = group;
+        return next;
+    }
+
+    static FilterGroup[] without(FilterGroup[] groups, FilterGroup group) {
+        FilterGroup[] next = new FilterGroup[groups.length - 1];
+        int i = 0;
+        for (FilterGroup existing : groups) {
+            if (existing != group) {
+                next[i++] = existing;
+            }
+        }
+        return next;
+    }
+}
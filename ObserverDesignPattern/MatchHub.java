@@ -0,0 +1,247 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+=======================================================================================
+🧠 Match Hub - Topic-based Routing for Many Matches
+
+- With one `IplMatch` per game, following "all CSK matches" means registering with
+  every match separately.
+- The hub keeps one observer registry per TOPIC:
+    - `Topic.match(id)`        → one particular match
+    - `Topic.team(name)`       → every match the team plays
+    - `Topic.tournament(name)` → every match of a tournament (or a match day)
+    - `Topic.ALL`              → wildcard, every match on the hub
+- When a match is registered, the registries of all its topics are resolved ONCE into
+  a `MatchChannel`. Publishing through the channel needs no lookups at all - the cost
+  per event does not depend on how many matches or topics exist.
+- An observer subscribed to several topics of the same match is notified once per
+  matching subscription.
+- A topic's observers are kept in fixed-size segments (`TopicRegistry`), so subscribing
+  copies one small segment instead of the whole topic - "ALL" can have millions.
+- `unregisterMatch()` drops the match's own topic; its subscribers are released.
+
+=======================================================================================
+*/
+
+final class Topic {
+    static final Topic ALL = new Topic("*", "*");
+
+    private final String kind;
+    private final String key;
+    private final int hash;
+
+    private Topic(String kind, String key) {
+        this.kind = kind;
+        this.key = Objects.requireNonNull(key);
+        this.hash = 31 * kind.hashCode() + key.hashCode();
+    }
+
+    static Topic match(String matchId) {
+        return new Topic("match", matchId);
+    }
+
+    static Topic team(String teamName) {
+        return new Topic("team", teamName);
+    }
+
+    static Topic tournament(String tournament) {
+        return new Topic("tournament", tournament);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Topic)) {
+            return false;
+        }
+        Topic other = (Topic) o;
+        return kind.equals(other.kind) && key.equals(other.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return kind + ":" + key;
+    }
+}
+
+// Observers of one topic, split into copy-on-write segments of at most SEGMENT_SIZE
+final class TopicRegistry {
+    static final int SEGMENT_SIZE = 1024;
+    private static final ObserverRegistry[] NONE = new ObserverRegistry[0];
+
+    private volatile ObserverRegistry[] segments = NONE; // Replaced only when a segment is added or dropped
+    private final Map<Observer, ObserverRegistry> segmentOf = new IdentityHashMap<>(); // Guarded by this
+
+    // Current segments - publishers dispatch to each segment's snapshot
+    ObserverRegistry[] segments() {
+        return segments;
+    }
+
+    synchronized boolean add(Observer observer) {
+        if (segmentOf.containsKey(observer)) {
+            return false;
+        }
+        ObserverRegistry[] current = segments;
+        ObserverRegistry target = current.length > 0 ? current[current.length - 1] : null;
+        if (target == null || target.size() >= SEGMENT_SIZE) {
+            target = new ObserverRegistry();
+            ObserverRegistry[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = target;
+            segments = next;
+        }
+        target.add(observer);
+        segmentOf.put(observer, target);
+        return true;
+    }
+
+    synchronized boolean remove(Observer observer) {
+        ObserverRegistry segment = segmentOf.remove(observer);
+        if (segment == null) {
+            return false;
+        }
+        segment.remove(observer);
+        if (segment.size() == 0) {
+            // Drop empty segments so a topic that shrinks does not keep iterating them
+            List<ObserverRegistry> next = new ArrayList<>(Arrays.asList(segments));
+            next.remove(segment);
+            segments = next.toArray(NONE);
+        }
+        return true;
+    }
+
+    synchronized List<Observer> observers() {
+        return new ArrayList<>(segmentOf.keySet());
+    }
+}
+
+class MatchHub {
+    private final Map<Topic, TopicRegistry> registries = new ConcurrentHashMap<>();
+    private final Map<String, MatchChannel> channels = new ConcurrentHashMap<>();
+    private final Map<Observer, Integer> subscriptionCounts = new ConcurrentHashMap<>(); // Topics per observer
+    private final NotificationDispatcher dispatcher;
+
+    public MatchHub() {
+        this(SequentialDispatcher.INSTANCE);
+    }
+
+    public MatchHub(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        dispatcher.setEvictionListener(this::unsubscribeAll);
+    }
+
+    // Publishing handle for one match - its topic registries are resolved once
+    final class MatchChannel {
+        private final String matchId;
+        private final TopicRegistry[] targets;
+
+        private MatchChannel(String matchId, TopicRegistry[] targets) {
+            this.matchId = matchId;
+            this.targets = targets;
+        }
+
+        String matchId() {
+            return matchId;
+        }
+
+        public void updateMatchScore(String status) {
+            publish(observer -> observer.update(status));
+        }
+
+        public void updateMatchStatus(MatchStatus status) {
+            // Async delivery outlives this call, so it needs its own copy
+            MatchStatus delivered = dispatcher.deliversInline() ? status : status.copy();
+            publish(observer -> observer.onStatus(delivered));
+        }
+
+        private void publish(Delivery delivery) {
+            for (TopicRegistry target : targets) {
+                for (ObserverRegistry segment : target.segments()) {
+                    Observer[] observers = segment.snapshot();
+                    if (observers.length > 0) {
+                        dispatcher.dispatch(observers, delivery);
+                    }
+                }
+            }
+        }
+    }
+
+    // Registers a live match under its ID, its teams, its tournament and the wildcard topic
+    public MatchChannel registerMatch(String matchId, String tournament, String... teams) {
+        TopicRegistry[] targets = new TopicRegistry[teams.length + 3];
+        targets[0] = registryFor(Topic.match(matchId));
+        targets[1] = registryFor(Topic.tournament(tournament));
+        targets[2] = registryFor(Topic.ALL);
+        for (int i = 0; i < teams.length; i++) {
+            targets[i + 3] = registryFor(Topic.team(teams[i]));
+        }
+        MatchChannel channel = new MatchChannel(matchId, targets);
+        if (channels.putIfAbsent(matchId, channel) != null) {
+            throw new IllegalStateException("Match already registered: " + matchId);
+        }
+        return channel;
+    }
+
+    // Also drops the match's own topic - its subscribers are unsubscribed from it
+    public void unregisterMatch(String matchId) {
+        if (channels.remove(matchId) == null) {
+            return;
+        }
+        TopicRegistry registry = registries.remove(Topic.match(matchId));
+        if (registry != null) {
+            for (Observer observer : registry.observers()) {
+                releaseSubscription(observer);
+            }
+        }
+    }
+
+    public MatchChannel channel(String matchId) {
+        return channels.get(matchId);
+    }
+
+    public void subscribe(Topic topic, Observer observer) {
+        if (registryFor(topic).add(observer)
+                && subscriptionCounts.merge(observer, 1, Integer::sum) == 1) {
+            dispatcher.observerAdded(observer);
+        }
+    }
+
+    public void unsubscribe(Topic topic, Observer observer) {
+        TopicRegistry registry = registries.get(topic);
+        if (registry != null && registry.remove(observer)) {
+            releaseSubscription(observer);
+        }
+    }
+
+    // Removes the observer from every topic (slow path - scans all topics)
+    public void unsubscribeAll(Observer observer) {
+        for (TopicRegistry registry : registries.values()) {
+            registry.remove(observer);
+        }
+        if (subscriptionCounts.remove(observer) != null) {
+            dispatcher.observerRemoved(observer);
+        }
+    }
+
+    private void releaseSubscription(Observer observer) {
+        if (subscriptionCounts.computeIfPresent(observer, (o, count) -> count > 1 ? count - 1 : null) == null) {
+            dispatcher.observerRemoved(observer); // Last subscription gone
+        }
+    }
+
+    private TopicRegistry registryFor(Topic topic) {
+        return registries.computeIfAbsent(topic, t -> new TopicRegistry());
+    }
+}
@@ -0,0 +1,190 @@
+/*
+=======================================================================================
+🧠 Structured Match Status
+
+- Instead of building a new String such as "CSK: 150/3 IN 18 OVERS" for every update,
+  the subject fills ONE reusable `MatchStatus` object with primitive fields.
+- Typed observers (`MatchStatusObserver`) read the fields directly, so publishing and
+  consuming an update on the hot path allocates nothing.
+- Classic `Observer`s still get a String: `Observer.onStatus()` renders the status
+  once per update and the text is shared by all String observers.
+- A `MatchStatus` handed to an observer is only valid during the callback; call
+  `copy()` to keep it.
+
+=======================================================================================
+*/
+
+class MatchStatus {
+    // Result codes
+    static final int IN_PROGRESS = 0;
+    static final int WON = 1;
+    static final int TIED = 2;
+    static final int NO_RESULT = 3;
+
+    // Field indexes - bit (1 << index) marks the field in a change mask
+    static final int FIELD_TEAM = 0;
+    static final int FIELD_RUNS = 1;
+    static final int FIELD_WICKETS = 2;
+    static final int FIELD_BALLS = 3;
+    static final int FIELD_RESULT = 4;
+    static final int FIELD_MARGIN = 5;
+    static final int FIELD_COUNT = 6;
+
+    // Team IDs are indexes into this table
+    private static final String[] TEAM_NAMES = {"CSK", "MI", "RCB", "KKR", "SRH", "DC", "RR", "PBKS", "LSG", "GT"};
+
+    private int teamId;
+    private int runs;
+    private int wickets;
+    private int ballsBowled;
+    private int resultCode;
+    private int resultMargin; // Runs (or wickets) the match was won by
+    private int changes; // Fields changed by this update - set by the subject when publishing
+    private String text; // Rendered lazily, reset on every change
+
+    static int teamId(String teamName) {
+        for (int i = 0; i < TEAM_NAMES.length; i++) {
+            if (TEAM_NAMES[i].equals(teamName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown team: " + teamName);
+    }
+
+    static String teamName(int teamId) {
+        return TEAM_NAMES[teamId];
+    }
+
+    // Score during an innings
+    MatchStatus score(int teamId, int runs, int wickets, int ballsBowled) {
+        this.teamId = teamId;
+        this.runs = runs;
+        this.wickets = wickets;
+        this.ballsBowled = ballsBowled;
+        this.resultCode = IN_PROGRESS;
+        this.resultMargin = 0;
+        this.text = null;
+        return this;
+    }
+
+    // Final result of the match
+    MatchStatus result(int teamId, int resultCode, int resultMargin) {
+        this.teamId = teamId;
+        this.resultCode = resultCode;
+        this.resultMargin = resultMargin;
+        this.text = null;
+        return this;
+    }
+
+    void copyFrom(MatchStatus other) {
+        this.teamId = other.teamId;
+        this.runs = other.runs;
+        this.wickets = other.wickets;
+        this.ballsBowled = other.ballsBowled;
+        this.resultCode = other.resultCode;
+        this.resultMargin = other.resultMargin;
+        this.changes = other.changes;
+        this.text = other.text;
+    }
+
+    MatchStatus copy() {
+        MatchStatus copy = new MatchStatus();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    int field(int index) {
+        switch (index) {
+            case FIELD_TEAM: return teamId;
+            case FIELD_RUNS: return runs;
+            case FIELD_WICKETS: return wickets;
+            case FIELD_BALLS: return ballsBowled;
+            case FIELD_RESULT: return resultCode;
+            case FIELD_MARGIN: return resultMargin;
+            default: throw new IllegalArgumentException("Unknown field: " + index);
+        }
+    }
+
+    void setField(int index, int value) {
+        switch (index) {
+            case FIELD_TEAM: teamId = value; break;
+            case FIELD_RUNS: runs = value; break;
+            case FIELD_WICKETS: wickets = value; break;
+            case FIELD_BALLS: ballsBowled = value; break;
+            case FIELD_RESULT: resultCode = value; break;
+            case FIELD_MARGIN: resultMargin = value; break;
+            default: throw new IllegalArgumentException("Unknown field: " + index);
+        }
+        text = null;
+    }
+
+    // Bit mask of the fields that differ from other
+    int changedFields(MatchStatus other) {
+        int mask = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (field(i) != other.field(i)) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    void setChanges(int mask) {
+        this.changes = mask;
+    }
+
+    // Change mask of the update being delivered
+    int changes() {
+        return changes;
+    }
+
+    // Whether the field changed with the update being delivered
+    boolean changed(int field) {
+        return (changes & (1 << field)) != 0;
+    }
+
+    int teamId() { return teamId; }
+    int runs() { return runs; }
+    int wickets() { return wickets; }
+    int ballsBowled() { return ballsBowled; }
+    int resultCode() { return resultCode; }
+    int resultMargin() { return resultMargin; }
+
+    // Legacy text form, e.g. "CSK: 150/3 IN 18 OVERS" or "CSK WON BY 20 RUNS"
+    @Override
+    public String toString() {
+        if (text == null) {
+            text = render();
+        }
+        return text;
+    }
+
+    private String render() {
+        StringBuilder sb = new StringBuilder(32).append(TEAM_NAMES[teamId]);
+        switch (resultCode) {
+            case WON:
+                return sb.append(" WON BY ").append(resultMargin).append(" RUNS").toString();
+            case TIED:
+                return sb.append(" MATCH TIED").toString();
+            case NO_RESULT:
+                return sb.append(" NO RESULT").toString();
+            default:
+                sb.append(": ").append(runs).append('/').append(wickets).append(" IN ").append(ballsBowled / 6);
+                if (ballsBowled % 6 != 0) {
+                    sb.append('.').append(ballsBowled % 6);
+                }
+                return sb.append(" OVERS").toString();
+        }
+    }
+}
+
+// Observer that consumes the structured status - never sees a String
+interface MatchStatusObserver extends Observer {
+    @Override
+    void onStatus(MatchStatus status);
+
+    // Plain String updates carry no structure, so typed observers ignore them
+    @Override
+    default void update(String matchStatus) {
+    }
+}
@@ -0,0 +1,219 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+=======================================================================================
+🧠 Observer Notification Benchmarks
+
+- A small, dependency-free harness for the notification path (run `main`).
+- Each scenario is warmed up first and reports the average cost per update:
+    1. Notify latency vs observer count - ArrayList loop, IplMatch, RingBufferMatch.
+    2. Add/remove churn on other threads while notifying (see `ObserverStressCheck`
+       for the full consistency check).
+    3. Bytes allocated per update (String vs structured `MatchStatus`).
+    4. Sync vs async dispatch - publisher cost and end-to-end delivery time.
+- Numbers from this harness are meant for before/after comparisons on the same machine.
+
+=======================================================================================
+*/
+
+class ObserverBenchmark {
+    private static final int[] OBSERVER_COUNTS = {1, 100, 10_000, 1_000_000};
+    private static final long TARGET_DELIVERIES = 20_000_000L; // Per measurement, to keep runs short
+
+    // Observer that only counts, so the benchmark measures the notification path itself
+    private static final class CountingObserver implements Observer {
+        private final LongAdder total;
+        long count;
+
+        CountingObserver(LongAdder total) {
+            this.total = total;
+        }
+
+        @Override
+        public void update(String matchStatus) {
+            count++;
+            if (total != null) {
+                total.increment();
+            }
+        }
+
+        @Override
+        public void onStatus(MatchStatus status) {
+            count++;
+            if (total != null) {
+                total.increment();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxObservers = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        notifyLatency(maxObservers);
+        churnUnderNotify();
+        allocationPerUpdate();
+        syncVersusAsync();
+    }
+
+    // 1. Notify latency vs observer count
+    static void notifyLatency(int maxObservers) {
+        System.out.println("== Notify latency (ns per update) ==");
+        System.out.printf("%12s %14s %14s %14s%n", "observers", "ArrayList", "IplMatch", "RingBuffer");
+        for (int count : OBSERVER_COUNTS) {
+            if (count > maxObservers) {
+                break;
+            }
+            int updates = (int) Math.max(10, TARGET_DELIVERIES / count);
+
+            List<Observer> list = new ArrayList<>();
+            IplMatch match = new IplMatch();
+            for (int i = 0; i < count; i++) {
+                list.add(new CountingObserver(null));
+            }
+            match.addObservers(list); // Bulk - one add per observer is quadratic at a million
+            double arrayList = measure(updates, () -> {
+                for (Observer observer : list) {
+                    observer.update("CSK: 150/3 IN 18 OVERS");
+                }
+            });
+            double iplMatch = measure(updates, () -> match.updateMatchScore("CSK: 150/3 IN 18 OVERS"));
+
+            LongAdder delivered = new LongAdder();
+            RingBufferMatch ring = new RingBufferMatch(1024, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+            List<Observer> counted = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                counted.add(new CountingObserver(delivered));
+            }
+            ring.addObservers(counted);
+            double ringBuffer = measure(1, () -> {
+                long expected = delivered.sum() + (long) updates * count;
+                for (int i = 0; i < updates; i++) {
+                    ring.updateMatchScore("CSK: 150/3 IN 18 OVERS");
+                }
+                awaitCount(delivered, expected);
+            }) / updates;
+            ring.shutdown();
+
+            System.out.printf("%12d %14.1f %14.1f %14.1f%n", count, arrayList, iplMatch, ringBuffer);
+        }
+    }
+
+    // 2. Add/remove churn on other threads while notifying
+    static void churnUnderNotify() throws InterruptedException {
+        System.out.println("== Add/remove churn during notify (1,000 stable observers) ==");
+        IplMatch match = new IplMatch();
+        for (int i = 0; i < 1_000; i++) {
+            match.addObserver(new CountingObserver(null));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder churnOps = new LongAdder();
+        List<Thread> churners = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                while (running.get()) {
+                    Observer observer = new CountingObserver(null);
+                    match.addObserver(observer);
+                    match.removeObserver(observer);
+                    churnOps.increment();
+                }
+            });
+            thread.setDaemon(true);
+            churners.add(thread);
+            thread.start();
+        }
+        double nanos = measure(20_000, () -> match.updateMatchScore("CSK: 150/3 IN 18 OVERS"));
+        running.set(false);
+        for (Thread thread : churners) {
+            thread.join();
+        }
+        // Every churned observer was removed again - only the stable ones may be left
+        if (match.liveObserverCount() != 1_000) {
+            throw new IllegalStateException(match.liveObserverCount() + " observers left after churn, expected 1000");
+        }
+        System.out.printf("notify: %.1f ns per update, %d add/remove pairs%n", nanos, churnOps.sum());
+    }
+
+    // 3. Bytes allocated per update on the publishing thread
+    static void allocationPerUpdate() {
+        System.out.println("== Allocation per update (100 observers, sequential dispatch) ==");
+        IplMatch stringMatch = new IplMatch();
+        IplMatch typedMatch = new IplMatch();
+        for (int i = 0; i < 100; i++) {
+            stringMatch.addObserver(new CountingObserver(null));
+            typedMatch.addObserver(new CountingObserver(null));
+        }
+        MatchStatus status = new MatchStatus();
+        int csk = MatchStatus.teamId("CSK");
+        int[] runs = {0};
+        System.out.printf("String updates:     %.1f bytes%n", allocatedPerOp(100_000,
+                () -> stringMatch.updateMatchScore("CSK: " + (runs[0]++) + "/3 IN 18 OVERS")));
+        System.out.printf("MatchStatus updates: %.1f bytes%n", allocatedPerOp(100_000,
+                () -> typedMatch.updateMatchStatus(status.score(csk, runs[0]++, 3, 108))));
+    }
+
+    // 4. Sync vs async dispatch
+    static void syncVersusAsync() throws InterruptedException {
+        System.out.println("== Sync vs async dispatch (1,000 observers) ==");
+        int observers = 1_000;
+        int updates = 10_000;
+        for (boolean async : new boolean[]{false, true}) {
+            IplMatch match = new IplMatch();
+            ExecutorService executor = async ? AsyncDispatcher.defaultExecutor() : null;
+            if (async) {
+                // Queues large enough that nothing is dropped, so end-to-end time is comparable
+                match.setDispatcher(new AsyncDispatcher(executor, updates));
+            }
+            LongAdder delivered = new LongAdder();
+            for (int i = 0; i < observers; i++) {
+                match.addObserver(new CountingObserver(delivered));
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < updates; i++) {
+                match.updateMatchScore("CSK: 150/3 IN 18 OVERS");
+            }
+            long published = System.nanoTime();
+            awaitCount(delivered, (long) updates * observers);
+            long finished = System.nanoTime();
+            System.out.printf("%-5s publisher: %8.1f ns per update, end-to-end: %8.1f ns per update%n",
+                    async ? "async" : "sync", (published - start) / (double) updates,
+                    (finished - start) / (double) updates);
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    // Average nanoseconds per call after warming up
+    private static double measure(int iterations, Runnable op) {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < iterations; i++) {
+                op.run();
+            }
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+
+    private static double allocatedPerOp(int iterations, Runnable op) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        measure(iterations, op); // Warm up so JIT-compiled code is measured
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            op.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / (double) iterations;
+    }
+
+    private static void awaitCount(LongAdder counter, long expected) {
+        while (counter.sum() < expected) {
+            Thread.onSpinWait();
+        }
+    }
+}
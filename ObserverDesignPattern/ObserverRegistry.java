@@ -0,0 +1,304 @@
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+=======================================================================================
+🧠 Concurrent Observer Registry (Copy-on-Write)
+
+- Viewers join and leave while notifications are running, so a plain `ArrayList`
+  throws `ConcurrentModificationException`.
+- The registry publishes an immutable snapshot array through an `AtomicReference`:
+    - Readers (notify loops) just read the current array - they never block or lock.
+    - Writers build a new array and swap it in, so running loops are never disturbed.
+- An identity index (observer → slot) finds an observer in O(1) on removal;
+  the last observer is moved into the freed slot instead of shifting the array
+  (so delivery order is insertion order only until the first removal).
+- Each observer is registered at most once (adding it twice is a no-op).
+- `addWeak()` registers an observer through a weak reference, so a client that
+  disconnects without unsubscribing can still be garbage collected:
+    - A collected observer is simply skipped by running notify loops.
+    - A shared cleaner thread then purges it from the registry.
+
+=======================================================================================
+*/
+
+class ObserverRegistry {
+    private static final Observer[] EMPTY = new Observer[0];
+    private static final ReferenceQueue<Observer> COLLECTED = new ReferenceQueue<>();
+
+    static {
+        // One cleaner thread for all registries - purges weakly registered observers once collected
+        Thread cleaner = new Thread(() -> {
+            while (true) {
+                try {
+                    ((ObserverRef) COLLECTED.remove()).purge();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "observer-registry-cleaner");
+        cleaner.setDaemon(true);
+        cleaner.start();
+    }
+
+    // Weak reference that compares by the identity of the referenced observer
+    private static final class ObserverRef extends WeakReference<Observer> {
+        private final int hash;
+        private final WeakObserver owner; // Null for lookup keys
+
+        ObserverRef(Observer observer, WeakObserver owner) {
+            super(observer, owner != null ? COLLECTED : null);
+            this.hash = System.identityHashCode(observer);
+            this.owner = owner;
+        }
+
+        void purge() {
+            owner.registry.purge(owner);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ObserverRef)) {
+                return false;
+            }
+            Observer referent = get();
+            return referent != null && referent == ((ObserverRef) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // Registry entry for a weakly registered observer - never keeps it alive
+    private static final class WeakObserver implements Observer {
+        final ObserverRef ref;
+        final ObserverRegistry registry;
+        // Captured up-front so dispatchers still see them after the observer is collected
+        final BackpressurePolicy backpressurePolicy;
+        final DeliveryTier deliveryTier;
+
+        WeakObserver(Observer observer, ObserverRegistry registry) {
+            this.ref = new ObserverRef(observer, this);
+            this.registry = registry;
+            this.backpressurePolicy = observer.backpressurePolicy();
+            this.deliveryTier = observer.deliveryTier();
+        }
+
+        @Override
+        public void update(String matchStatus) {
+            Observer observer = ref.get();
+            if (observer != null) { // Collected observers are skipped until purged
+                observer.update(matchStatus);
+            }
+        }
+
+        @Override
+        public void updateBatch(List<String> matchStatuses) {
+            Observer observer = ref.get();
+            if (observer != null) {
+                observer.updateBatch(matchStatuses);
+            }
+        }
+
+        @Override
+        public void onStatus(MatchStatus status) {
+            Observer observer = ref.get();
+            if (observer != null) {
+                observer.onStatus(status);
+            }
+        }
+
+        @Override
+        public BackpressurePolicy backpressurePolicy() {
+            return backpressurePolicy;
+        }
+
+        @Override
+        public DeliveryTier deliveryTier() {
+            return deliveryTier;
+        }
+    }
+
+    private final AtomicReference<Observer[]> snapshot = new AtomicReference<>(EMPTY);
+    private final Map<Observer, Integer> index = new IdentityHashMap<>(); // Guarded by this
+    private final Map<ObserverRef, WeakObserver> weakIndex = new HashMap<>(); // Guarded by this
+    private final LongAdder purged = new LongAdder();
+    private volatile Consumer<Observer> removalListener = entry -> { };
+
+    // Current observers - callers must treat the array as read-only
+    public Observer[] snapshot() {
+        return snapshot.get();
+    }
+
+    public int size() {
+        return snapshot.get().length;
+    }
+
+    // Observers that are registered and not yet garbage collected
+    public int liveObserverCount() {
+        int live = 0;
+        for (Observer observer : snapshot.get()) {
+            if (!(observer instanceof WeakObserver) || ((WeakObserver) observer).ref.get() != null) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    // Weakly registered observers removed after being garbage collected
+    public long purgedObserverCount() {
+        return purged.sum();
+    }
+
+    // Told about entries the registry removes by itself (collected weak observers)
+    public void setRemovalListener(Consumer<Observer> listener) {
+        this.removalListener = listener;
+    }
+
+    // Whether the observer is registered, strongly or weakly
+    public synchronized boolean contains(Observer observer) {
+        return index.containsKey(observer) || weakIndex.containsKey(new ObserverRef(observer, null));
+    }
+
+    public synchronized boolean add(Observer observer) {
+        if (index.containsKey(observer) || weakIndex.containsKey(new ObserverRef(observer, null))) {
+            return false;
+        }
+        append(observer);
+        return true;
+    }
+
+    // Bulk add with a single copy of the snapshot (one add() per observer copies it every time);
+    // returns the observers that were actually added, skipping ones already registered
+    public synchronized List<Observer> addAll(Collection<? extends Observer> observers) {
+        List<Observer> added = new ArrayList<>(observers.size());
+        Map<Observer, Boolean> seen = new IdentityHashMap<>();
+        for (Observer observer : observers) {
+            if (!index.containsKey(observer) && !weakIndex.containsKey(new ObserverRef(observer, null))
+                    && seen.put(observer, Boolean.TRUE) == null) {
+                added.add(observer);
+            }
+        }
+        if (added.isEmpty()) {
+            return added;
+        }
+        Observer[] current = snapshot.get();
+        Observer[] next = Arrays.copyOf(current, current.length + added.size());
+        for (int i = 0; i < added.size(); i++) {
+            next[current.length + i] = added.get(i);
+            index.put(added.get(i), current.length + i);
+        }
+        snapshot.set(next);
+        return added;
+    }
+
+    // Registers without keeping the observer alive; returns the registry entry, or null if already registered
+    public synchronized Observer addWeak(Observer observer) {
+        if (index.containsKey(observer) || weakIndex.containsKey(new ObserverRef(observer, null))) {
+            return null;
+        }
+        WeakObserver entry = new WeakObserver(observer, this);
+        weakIndex.put(entry.ref, entry);
+        append(entry);
+        return entry;
+    }
+
+    public boolean remove(Observer observer) {
+        return removeEntry(observer) != null;
+    }
+
+    // Removes the observer and returns the entry that was in the snapshot, or null
+    public synchronized Observer removeEntry(Observer observer) {
+        if (index.containsKey(observer)) {
+            if (observer instanceof WeakObserver) {
+                // Removed through its entry (e.g. by the dispatcher on eviction) - drop the weak index too
+                weakIndex.remove(((WeakObserver) observer).ref, observer);
+            }
+            removeSlot(observer);
+            return observer;
+        }
+        WeakObserver entry = weakIndex.remove(new ObserverRef(observer, null));
+        if (entry != null) {
+            removeSlot(entry);
+        }
+        return entry;
+    }
+
+    // Checks that the snapshot and both indexes describe the same observers (see ObserverStressCheck)
+    synchronized void verifyConsistency() {
+        Observer[] current = snapshot.get();
+        if (index.size() != current.length) {
+            throw new IllegalStateException("index has " + index.size() + " entries, snapshot " + current.length);
+        }
+        int weak = 0;
+        for (int slot = 0; slot < current.length; slot++) {
+            Integer indexed = index.get(current[slot]);
+            if (indexed == null || indexed != slot) {
+                throw new IllegalStateException("slot " + slot + " is indexed as " + indexed);
+            }
+            if (current[slot] instanceof WeakObserver) {
+                weak++;
+                WeakObserver entry = (WeakObserver) current[slot];
+                if (entry.ref.get() != null && weakIndex.get(entry.ref) != entry) {
+                    throw new IllegalStateException("weak entry in slot " + slot + " is missing from the weak index");
+                }
+            }
+        }
+        if (weakIndex.size() > weak) {
+            throw new IllegalStateException("weak index has " + weakIndex.size() + " entries, snapshot " + weak);
+        }
+    }
+
+    private void purge(WeakObserver entry) {
+        synchronized (this) {
+            if (weakIndex.remove(entry.ref) != entry || !index.containsKey(entry)) {
+                return; // Already removed explicitly
+            }
+            removeSlot(entry);
+        }
+        purged.increment();
+        removalListener.accept(entry);
+    }
+
+    private void append(Observer observer) {
+        Observer[] current = snapshot.get();
+        Observer[] next = new Observer[current.length + 1];
+        System.arraycopy(current, 0, next, 0, current.length);
+        next[current.length] = observer;
+        index.put(observer, current.length);
+        snapshot.set(next);
+    }
+
+    private void removeSlot(Observer observer) {
+        int slot = index.remove(observer);
+        Observer[] current = snapshot.get();
+        int last = current.length - 1;
+        if (last == 0) {
+            snapshot.set(EMPTY);
+            return;
+        }
+        Observer[] next = new Observer[last];
+        System.arraycopy(current, 0, next, 0, last);
+        if (slot != last) {
+            // Move the last observer into the freed slot
+            next[slot] = current[last];
+            index.put(current[last], slot);
+        }
+        snapshot.set(next);
+    }
+}
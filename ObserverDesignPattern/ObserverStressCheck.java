@@ -0,0 +1,169 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+=======================================================================================
+🧠 Observer Registry Stress Check
+
+- A runnable check (run `main`) for the copy-on-write registry under contention:
+    - N threads keep adding and removing observers (strong, weak, and removal through
+      the registry entry) while other threads notify from the snapshot.
+    - Afterwards it verifies that no thread threw, that only the stable observers are
+      left, that the snapshot and the indexes agree, and that every stable observer
+      was notified exactly once per update.
+- Exits with status 1 and prints what went wrong when a check fails.
+
+=======================================================================================
+*/
+
+class ObserverStressCheck {
+    private static final int STABLE_OBSERVERS = 100;
+    private static final long RUN_MILLIS = 2_000;
+
+    // Counts deliveries from the notifying threads
+    private static final class CountingObserver implements Observer {
+        final LongAdder count = new LongAdder();
+
+        @Override
+        public void update(String matchStatus) {
+            count.increment();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        List<String> failures = new ArrayList<>();
+        registryUnderChurn(threads, failures);
+        matchUnderChurn(threads, failures);
+        if (failures.isEmpty()) {
+            System.out.println("OK");
+        } else {
+            failures.forEach(System.out::println);
+            System.exit(1);
+        }
+    }
+
+    // Registry level: snapshot readers vs writers, then the indexes must still match the snapshot
+    static void registryUnderChurn(int threads, List<String> failures) throws InterruptedException {
+        ObserverRegistry registry = new ObserverRegistry();
+        List<CountingObserver> stable = stableObservers(registry::add);
+        LongAdder rounds = new LongAdder();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        runConcurrently(threads, threads, errors,
+                () -> {
+                    for (Observer observer : registry.snapshot()) {
+                        observer.update("CSK: 150/3 IN 18 OVERS");
+                    }
+                    rounds.increment();
+                },
+                churn -> {
+                    Observer strong = new CountingObserver();
+                    Observer weak = new CountingObserver();
+                    registry.add(strong);
+                    Observer entry = registry.addWeak(weak);
+                    registry.remove(strong);
+                    if (churn % 2 == 0) {
+                        registry.remove(weak);
+                    } else {
+                        registry.removeEntry(entry); // As a dispatcher does on eviction
+                    }
+                });
+        check(failures, "registry", errors, registry.size(), stable, rounds.sum());
+        try {
+            registry.verifyConsistency();
+        } catch (IllegalStateException e) {
+            failures.add("registry: " + e.getMessage());
+        }
+    }
+
+    // Subject level: the same churn through IplMatch while the publisher keeps notifying
+    static void matchUnderChurn(int threads, List<String> failures) throws InterruptedException {
+        IplMatch match = new IplMatch();
+        List<CountingObserver> stable = stableObservers(match::addObserver);
+        LongAdder updates = new LongAdder();
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        runConcurrently(1, threads, errors, // updateMatchScore is called by one publisher at a time
+                () -> {
+                    match.updateMatchScore("CSK: 150/3 IN 18 OVERS");
+                    updates.increment();
+                },
+                churn -> {
+                    Observer observer = new CountingObserver();
+                    if (churn % 2 == 0) {
+                        match.addObserver(observer);
+                    } else {
+                        match.addWeakObserver(observer);
+                    }
+                    match.removeObserver(observer);
+                });
+        check(failures, "IplMatch", errors, match.liveObserverCount(), stable, updates.sum());
+    }
+
+    private static List<CountingObserver> stableObservers(Consumer<Observer> register) {
+        List<CountingObserver> stable = new ArrayList<>();
+        for (int i = 0; i < STABLE_OBSERVERS; i++) {
+            CountingObserver observer = new CountingObserver();
+            stable.add(observer);
+            register.accept(observer);
+        }
+        return stable;
+    }
+
+    private interface Churn {
+        void run(long iteration);
+    }
+
+    // Runs the notifier and churn threads for RUN_MILLIS, collecting anything they throw
+    private static void runConcurrently(int notifiers, int churners, Queue<Throwable> errors, Runnable notify,
+                                        Churn churn) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < notifiers; t++) {
+            workers.add(new Thread(() -> {
+                while (running.get()) {
+                    notify.run();
+                }
+            }, "stress-notify-" + t));
+        }
+        for (int t = 0; t < churners; t++) {
+            workers.add(new Thread(() -> {
+                for (long i = 0; running.get(); i++) {
+                    churn.run(i);
+                }
+            }, "stress-churn-" + t));
+        }
+        for (Thread worker : workers) {
+            worker.setUncaughtExceptionHandler((thread, e) -> errors.add(e));
+            worker.start();
+        }
+        TimeUnit.MILLISECONDS.sleep(RUN_MILLIS);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private static void check(List<String> failures, String name, Queue<Throwable> errors, int size,
+                              List<CountingObserver> stable, long expectedDeliveries) {
+        for (Throwable e : errors) {
+            failures.add(name + ": " + e);
+        }
+        if (size != STABLE_OBSERVERS) {
+            failures.add(name + ": " + size + " observers left, expected " + STABLE_OBSERVERS);
+        }
+        for (CountingObserver observer : stable) {
+            if (observer.count.sum() != expectedDeliveries) {
+                failures.add(name + ": stable observer notified " + observer.count.sum()
+                        + " times, expected " + expectedDeliveries);
+                break;
+            }
+        }
+        System.out.printf("%-8s %,d notify rounds, %d observers left%n", name, expectedDeliveries, size);
+    }
+}
@@ -0,0 +1,203 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/*
+=======================================================================================
+🧠 Output Sink - Where Observers Write Their Updates
+
+- `System.out.println` is synchronized and makes a system call every time, so when
+  every observer prints directly, printing becomes the slowest part of notifying.
+- Observers write to an `OutputSink` instead:
+    - `OutputSink.SYSTEM_OUT`  → plain `System.out.println` (the classic behaviour).
+    - `BufferedOutputSink`     → the observer only enqueues the line and returns.
+      A single flusher thread encodes the lines into one reusable direct buffer and
+      writes them in batches, at least once per flush interval.
+- `close()` drains everything that was queued and stops the flusher thread;
+  `flush()` after `close()` does nothing.
+- If writing fails, the flusher stops and the `IOException` is rethrown (wrapped in
+  `UncheckedIOException`) from every later `println()` and `flush()`, instead of
+  leaving writers blocked on a queue nobody drains.
+
+=======================================================================================
+*/
+
+interface OutputSink {
+    OutputSink SYSTEM_OUT = line -> System.out.println(line);
+
+    void println(CharSequence line);
+
+    // Waits until everything written so far has been written out
+    default void flush() {
+    }
+
+    default void close() {
+        flush();
+    }
+}
+
+class BufferedOutputSink implements OutputSink {
+    private final BlockingQueue<Object> queue; // Lines, plus flush latches
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer; // Reused for every write - only touched by the flusher thread
+    // Unpaired surrogates become '?' like PrintStream would, instead of failing the writer
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final long flushIntervalNanos;
+    private final Thread flusher;
+    private volatile boolean closed;
+    private volatile IOException failure; // Set when the flusher died on a write error
+
+    // Writes to standard output
+    public BufferedOutputSink(int queueCapacity, int bufferSize, long flushInterval, TimeUnit unit) {
+        this(new FileOutputStream(FileDescriptor.out).getChannel(), queueCapacity, bufferSize, flushInterval, unit);
+    }
+
+    public BufferedOutputSink(WritableByteChannel channel, int queueCapacity, int bufferSize,
+                              long flushInterval, TimeUnit unit) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize too small: " + bufferSize);
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+        this.flusher = new Thread(this::flushLoop, "output-sink-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Blocks only when the queue is full, which keeps memory bounded
+    @Override
+    public void println(CharSequence line) {
+        if (closed) {
+            throw new IllegalStateException("Sink is closed");
+        }
+        checkFailure();
+        try {
+            // Waits in flush intervals so a dead flusher is noticed instead of blocking forever
+            while (!queue.offer(line, flushIntervalNanos, TimeUnit.NANOSECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (closed) {
+            return; // Everything was written out by close()
+        }
+        checkFailure();
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            // Released once every line queued before it has been written
+            while (!queue.offer(done, flushIntervalNanos, TimeUnit.NANOSECONDS)) {
+                checkFailure();
+            }
+            while (!done.await(flushIntervalNanos, TimeUnit.NANOSECONDS)) {
+                if (!flusher.isAlive()) {
+                    break; // Closed concurrently, or failed (reported below)
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        IOException error = failure;
+        if (error != null) {
+            throw new UncheckedIOException("Output sink failed", error);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                flush();
+            } finally {
+                closed = true; // The flusher exits within one flush interval
+            }
+        }
+    }
+
+    private void flushLoop() {
+        List<Object> batch = new ArrayList<>();
+        List<CountDownLatch> flushed = new ArrayList<>();
+        try {
+            while (!closed) {
+                Object first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    for (Object item : batch) {
+                        if (item instanceof CountDownLatch) {
+                            flushed.add((CountDownLatch) item);
+                        } else {
+                            encode((CharSequence) item);
+                        }
+                    }
+                    batch.clear();
+                }
+                writeBuffer();
+                for (CountDownLatch latch : flushed) {
+                    latch.countDown();
+                }
+                flushed.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failure = e; // Reported to writers by println() and flush()
+            for (CountDownLatch latch : flushed) {
+                latch.countDown();
+            }
+        }
+    }
+
+    private void encode(CharSequence line) throws IOException {
+        encode(CharBuffer.wrap(line));
+        encode(CharBuffer.wrap(System.lineSeparator()));
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                writeBuffer(); // Buffer full - write it out and continue
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,95 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+=======================================================================================
+🧠 Parallel Fan-out for Very Large Observer Sets
+
+- With millions of in-process observers a single loop uses only one core.
+- `ParallelDispatcher` splits the snapshot array into chunks and notifies them on a
+  fork/join pool:
+    - Chunk size comes from a cost model: the measured average cost per observer
+      (smoothed over past updates) decides how many observers make a task of about
+      `targetTaskNanos`.
+    - Below `sequentialThreshold` observers the plain loop is used - splitting would
+      cost more than it saves.
+- `dispatch()` returns only after every observer was notified, so one update is fully
+  delivered before the next starts: each observer still sees updates in order.
+
+=======================================================================================
+*/
+
+class ParallelDispatcher implements NotificationDispatcher {
+    static final int DEFAULT_SEQUENTIAL_THRESHOLD = 10_000;
+    static final long DEFAULT_TARGET_TASK_NANOS = 100_000; // ~0.1 ms of work per task
+    private static final int MIN_CHUNK = 256;
+
+    private final ForkJoinPool pool;
+    private final int sequentialThreshold;
+    private final long targetTaskNanos;
+    private volatile double nanosPerObserver = 50; // Smoothed measurement, starts with a guess
+
+    public ParallelDispatcher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD, DEFAULT_TARGET_TASK_NANOS);
+    }
+
+    public ParallelDispatcher(ForkJoinPool pool, int sequentialThreshold, long targetTaskNanos) {
+        this.pool = pool;
+        this.sequentialThreshold = sequentialThreshold;
+        this.targetTaskNanos = targetTaskNanos;
+    }
+
+    // A range of the snapshot array, split until it is one chunk (never serialized)
+    @SuppressWarnings("serial")
+    private static final class FanOutTask extends RecursiveAction {
+        private final Observer[] observers;
+        private final Delivery delivery;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        FanOutTask(Observer[] observers, Delivery delivery, int from, int to, int chunk) {
+            this.observers = observers;
+            this.delivery = delivery;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                for (int i = from; i < to; i++) {
+                    delivery.deliverTo(observers[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FanOutTask(observers, delivery, from, mid, chunk),
+                    new FanOutTask(observers, delivery, mid, to, chunk));
+        }
+    }
+
+    @Override
+    public void dispatch(Observer[] observers, Delivery delivery) {
+        if (observers.length < sequentialThreshold) {
+            SequentialDispatcher.INSTANCE.dispatch(observers, delivery);
+            return;
+        }
+        long start = System.nanoTime();
+        pool.invoke(new FanOutTask(observers, delivery, 0, observers.length, chunkSize()));
+        // CPU time per observer is roughly wall time times the parallelism used
+        double measured = (System.nanoTime() - start) * (double) pool.getParallelism() / observers.length;
+        nanosPerObserver = 0.8 * nanosPerObserver + 0.2 * measured;
+    }
+
+    // Everything is delivered before dispatch() returns
+    @Override
+    public boolean deliversInline() {
+        return true;
+    }
+
+    int chunkSize() {
+        return (int) Math.max(MIN_CHUNK, Math.min(Integer.MAX_VALUE, targetTaskNanos / Math.max(1.0, nanosPerObserver)));
+    }
+}
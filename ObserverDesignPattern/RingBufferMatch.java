@@ -0,0 +1,258 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+=======================================================================================
+🧠 Ring-Buffer Subject (Disruptor-style Event Bus)
+
+- A drop-in alternative to `IplMatch` for very high update rates.
+- All slots of the ring are allocated up-front and reused, so publishing an update
+  allocates nothing and takes no lock:
+    1. The (single) publisher claims the next sequence number.
+    2. It waits only if the slowest consumer is a full ring behind.
+    3. It writes the status into the slot and publishes the sequence.
+- A slot holds either a String or the fields of a `MatchStatus`. `updateMatchStatus`
+  copies the fields into the slot's own preallocated `MatchStatus` (`copyFrom`), and
+  observers receive it through `onStatus()` - valid only during the call.
+- Observers are spread over a fixed number of consumer threads. Every observer has
+  its own cursor, so it only sees updates published after it subscribed.
+- `updateMatchScore`, `updateMatchStatus` and `notifyObservers` publish, so they must
+  all be called from one thread at a time (single writer).
+- After `shutdown()` publishing throws `IllegalStateException` instead of waiting
+  forever for consumers that are gone.
+
+=======================================================================================
+*/
+
+class RingBufferMatch implements Subject {
+    // Preallocated, mutable slot of the ring
+    private static final class Slot {
+        final MatchStatus status = new MatchStatus(); // Filled in place for structured updates
+        String text; // The update for String updates, null for structured ones
+
+        void copyFrom(Slot other) {
+            status.copyFrom(other.status);
+            text = other.text;
+        }
+    }
+
+    // One observer with its own sequence cursor
+    private static final class ConsumerCursor implements Observer {
+        final Observer observer;
+        long sequence; // Last sequence delivered - only touched by the consumer thread
+
+        ConsumerCursor(Observer observer, long sequence) {
+            this.observer = observer;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void update(String matchStatus) {
+            observer.update(matchStatus);
+        }
+
+        @Override
+        public void onStatus(MatchStatus status) {
+            observer.onStatus(status);
+        }
+    }
+
+    // A consumer thread that delivers every published slot to its share of observers
+    private final class ConsumerGroup implements Runnable {
+        final ObserverRegistry cursors = new ObserverRegistry();
+        final AtomicLong sequence = new AtomicLong(-1); // Last slot fully processed
+
+        @Override
+        public void run() {
+            int idleSpins = 0;
+            while (running) {
+                long next = sequence.get() + 1;
+                long available = published.get();
+                if (next > available) {
+                    idle(idleSpins++);
+                    continue;
+                }
+                idleSpins = 0;
+                for (long seq = next; seq <= available; seq++) {
+                    Slot slot = ring[(int) (seq & mask)];
+                    for (Observer observer : cursors.snapshot()) {
+                        ConsumerCursor cursor = (ConsumerCursor) observer;
+                        if (seq > cursor.sequence) {
+                            cursor.sequence = seq; // Advanced even if the observer throws
+                            try {
+                                if (slot.text != null) {
+                                    cursor.update(slot.text);
+                                } else {
+                                    cursor.onStatus(slot.status);
+                                }
+                            } catch (RuntimeException e) {
+                                // A failing observer must not stop the group (or, once the ring wraps, the publisher)
+                                Thread current = Thread.currentThread();
+                                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+                            }
+                        }
+                    }
+                    sequence.lazySet(seq); // Frees the slot for the publisher
+                }
+            }
+        }
+    }
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong published = new AtomicLong(-1); // Highest sequence visible to consumers
+    private final ConsumerGroup[] groups;
+    private final Map<Observer, ConsumerGroup> groupOf = new ConcurrentHashMap<>();
+    private long nextSequence; // Only touched by the publishing thread
+    private long cachedMinConsumer = -1; // Publisher-side cache of the slowest group
+    private final MatchStatus latestStatus = new MatchStatus(); // Publisher-side, to compute change masks
+    private volatile boolean running = true;
+    private int nextGroup;
+
+    // ringSize must be a power of two
+    public RingBufferMatch(int ringSize, int consumerThreads) {
+        if (ringSize <= 0 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("ringSize must be a power of two: " + ringSize);
+        }
+        if (consumerThreads <= 0) {
+            throw new IllegalArgumentException("consumerThreads must be positive: " + consumerThreads);
+        }
+        this.ring = new Slot[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = ringSize - 1;
+        this.groups = new ConsumerGroup[consumerThreads];
+        for (int i = 0; i < consumerThreads; i++) {
+            groups[i] = new ConsumerGroup();
+            Thread thread = new Thread(groups[i], "ring-consumer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public synchronized void addObserver(Observer observer) {
+        if (groupOf.containsKey(observer)) {
+            return;
+        }
+        ConsumerGroup group = groups[nextGroup];
+        nextGroup = (nextGroup + 1) % groups.length;
+        // Start after the last published update - earlier slots are not replayed
+        group.cursors.add(new ConsumerCursor(observer, published.get()));
+        groupOf.put(observer, group);
+    }
+
+    // Bulk registration - each group's cursor registry is copied once, not once per observer
+    public synchronized void addObservers(Collection<? extends Observer> observers) {
+        List<List<Observer>> cursors = new ArrayList<>();
+        for (int i = 0; i < groups.length; i++) {
+            cursors.add(new ArrayList<>());
+        }
+        long start = published.get();
+        for (Observer observer : observers) {
+            if (groupOf.putIfAbsent(observer, groups[nextGroup]) == null) {
+                cursors.get(nextGroup).add(new ConsumerCursor(observer, start));
+                nextGroup = (nextGroup + 1) % groups.length;
+            }
+        }
+        for (int i = 0; i < groups.length; i++) {
+            groups[i].cursors.addAll(cursors.get(i));
+        }
+    }
+
+    @Override
+    public synchronized void removeObserver(Observer observer) {
+        ConsumerGroup group = groupOf.remove(observer);
+        if (group == null) {
+            return;
+        }
+        for (Observer cursor : group.cursors.snapshot()) {
+            if (((ConsumerCursor) cursor).observer == observer) {
+                group.cursors.remove(cursor);
+                return;
+            }
+        }
+    }
+
+    // Re-publishes the latest update. It publishes, so only call it from the publishing thread.
+    @Override
+    public void notifyObservers() {
+        long last = nextSequence - 1; // The publisher's own last sequence
+        if (last >= 0) {
+            long seq = claim();
+            ring[(int) (seq & mask)].copyFrom(ring[(int) (last & mask)]);
+            published.lazySet(seq);
+        }
+    }
+
+    public void updateMatchScore(String status) {
+        long seq = claim();
+        ring[(int) (seq & mask)].text = status;
+        published.lazySet(seq);
+    }
+
+    // Structured update - copied into the slot, so callers may reuse their MatchStatus
+    public void updateMatchStatus(MatchStatus status) {
+        long seq = claim();
+        int changes = status.changedFields(latestStatus);
+        latestStatus.copyFrom(status);
+        Slot slot = ring[(int) (seq & mask)];
+        slot.status.copyFrom(status);
+        slot.status.setChanges(changes);
+        slot.text = null;
+        published.lazySet(seq);
+    }
+
+    // Stops the consumer threads; later updates are rejected
+    public void shutdown() {
+        running = false;
+    }
+
+    // Next sequence to fill - waits while its slot may still be in use by the slowest consumer group
+    private long claim() {
+        checkRunning();
+        long seq = nextSequence;
+        long wrapPoint = seq - ring.length;
+        if (wrapPoint > cachedMinConsumer) {
+            long minConsumer;
+            int spins = 0;
+            while (wrapPoint > (minConsumer = minConsumerSequence())) {
+                checkRunning(); // Stopped consumers never free the slot
+                idle(spins++); // Back off so consumers sharing this core can catch up
+            }
+            cachedMinConsumer = minConsumer;
+        }
+        nextSequence = seq + 1;
+        return seq;
+    }
+
+    private void checkRunning() {
+        if (!running) {
+            throw new IllegalStateException("Match has been shut down");
+        }
+    }
+
+    private long minConsumerSequence() {
+        long min = Long.MAX_VALUE;
+        for (ConsumerGroup group : groups) {
+            min = Math.min(min, group.sequence.get());
+        }
+        return min;
+    }
+
+    private static void idle(int spins) {
+        if (spins < 100) {
+            Thread.onSpinWait();
+        } else if (spins < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(50_000);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+=======================================================================================
+🧠 Priority Tiers for Observers
+
+- Not every observer is equally urgent: the broadcast `TVDisplay` must show a score
+  before the best-effort `GoogleSearch` indexer gets it.
+- Every observer belongs to a `DeliveryTier` (see `Observer.deliveryTier()`):
+    - CRITICAL    → notified on the publishing thread, FIRST.
+    - STANDARD    → handed to a background pool afterwards.
+    - BEST_EFFORT → handed to a separate background pool afterwards.
+- Each tier has a latency target and a histogram of its delivery lag (time from
+  publish to the observer's callback), plus a count of deliveries over the target.
+
+=======================================================================================
+*/
+
+enum DeliveryTier {
+    CRITICAL(1, TimeUnit.MILLISECONDS),
+    STANDARD(50, TimeUnit.MILLISECONDS),
+    BEST_EFFORT(1, TimeUnit.SECONDS);
+
+    private final long targetNanos;
+
+    DeliveryTier(long target, TimeUnit unit) {
+        this.targetNanos = unit.toNanos(target);
+    }
+
+    long targetNanos() {
+        return targetNanos;
+    }
+}
+
+// Power-of-two buckets: bucket i counts lags in [2^(i-1), 2^i) nanoseconds
+class LatencyHistogram {
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final LongAdder overTarget = new LongAdder();
+    private final long targetNanos;
+
+    LatencyHistogram(long targetNanos) {
+        this.targetNanos = targetNanos;
+    }
+
+    void record(long nanos) {
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+        if (nanos > targetNanos) {
+            overTarget.increment();
+        }
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        return total;
+    }
+
+    long overTargetCount() {
+        return overTarget.sum();
+    }
+
+    // Upper bound of the bucket holding the given percentile (0-100)
+    long percentileNanos(double percentile) {
+        long rank = (long) Math.ceil(count() * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return 0;
+    }
+}
+
+class TieredDispatcher implements NotificationDispatcher {
+    private static final DeliveryTier[] TIERS = DeliveryTier.values();
+    private static final int PARTITION_SLOTS = 16; // Power of two
+
+    // Observers of one snapshot split by tier - recomputed only when the snapshot changes
+    private static final class Partition {
+        final Observer[] source;
+        final Observer[][] byTier;
+
+        Partition(Observer[] source) {
+            this.source = source;
+            this.byTier = new Observer[TIERS.length][];
+            int[] counts = new int[TIERS.length];
+            for (Observer observer : source) {
+                counts[observer.deliveryTier().ordinal()]++;
+            }
+            for (int t = 0; t < TIERS.length; t++) {
+                byTier[t] = new Observer[counts[t]];
+            }
+            Arrays.fill(counts, 0);
+            for (Observer observer : source) {
+                int t = observer.deliveryTier().ordinal();
+                byTier[t][counts[t]++] = observer;
+            }
+        }
+    }
+
+    private final NotificationDispatcher[] background = new NotificationDispatcher[TIERS.length];
+    private final LatencyHistogram[] histograms = new LatencyHistogram[TIERS.length];
+    // Direct-mapped by the identity of the source snapshot, so a subject that dispatches several
+    // registries (viewers plus filter groups) keeps one cached split per registry. Partitions are
+    // immutable with final fields, so racing writers only cost a recomputation.
+    private final Partition[] partitions = new Partition[PARTITION_SLOTS];
+
+    // Each background tier gets its own AsyncDispatcher and pool
+    public TieredDispatcher() {
+        this(new AsyncDispatcher(), new AsyncDispatcher());
+    }
+
+    public TieredDispatcher(NotificationDispatcher standard, NotificationDispatcher bestEffort) {
+        background[DeliveryTier.STANDARD.ordinal()] = standard;
+        background[DeliveryTier.BEST_EFFORT.ordinal()] = bestEffort;
+        for (DeliveryTier tier : TIERS) {
+            histograms[tier.ordinal()] = new LatencyHistogram(tier.targetNanos());
+        }
+    }
+
+    public LatencyHistogram histogram(DeliveryTier tier) {
+        return histograms[tier.ordinal()];
+    }
+
+    @Override
+    public void dispatch(Observer[] observers, Delivery delivery) {
+        long publishedAt = System.nanoTime();
+        int slot = System.identityHashCode(observers) & (PARTITION_SLOTS - 1);
+        Partition current = partitions[slot];
+        if (current == null || current.source != observers) {
+            current = new Partition(observers);
+            partitions[slot] = current;
+        }
+        // Critical tier first, on the publishing thread
+        LatencyHistogram critical = histograms[DeliveryTier.CRITICAL.ordinal()];
+        for (Observer observer : current.byTier[DeliveryTier.CRITICAL.ordinal()]) {
+            delivery.deliverTo(observer);
+            critical.record(System.nanoTime() - publishedAt);
+        }
+        // Then the background tiers, in priority order
+        for (int t = DeliveryTier.CRITICAL.ordinal() + 1; t < TIERS.length; t++) {
+            Observer[] tierObservers = current.byTier[t];
+            if (tierObservers.length > 0) {
+                LatencyHistogram histogram = histograms[t];
+                background[t].dispatch(tierObservers, observer -> {
+                    delivery.deliverTo(observer);
+                    histogram.record(System.nanoTime() - publishedAt);
+                });
+            }
+        }
+    }
+
+    @Override
+    public void observerAdded(Observer observer) {
+        NotificationDispatcher dispatcher = background[observer.deliveryTier().ordinal()];
+        if (dispatcher != null) {
+            dispatcher.observerAdded(observer);
+        }
+    }
+
+    @Override
+    public void observerRemoved(Observer observer) {
+        NotificationDispatcher dispatcher = background[observer.deliveryTier().ordinal()];
+        if (dispatcher != null) {
+            dispatcher.observerRemoved(observer);
+        }
+    }
+
+    @Override
+    public void setEvictionListener(Consumer<Observer> listener) {
+        for (NotificationDispatcher dispatcher : background) {
+            if (dispatcher != null) {
+                dispatcher.setEvictionListener(listener);
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (NotificationDispatcher dispatcher : background) {
+            if (dispatcher != null) {
+                dispatcher.shutdown();
+            }
+        }
+    }
+}
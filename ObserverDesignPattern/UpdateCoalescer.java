@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+=======================================================================================
+🧠 Coalescing Score Updates
+
+- In a fast over the score changes far more often than a phone can redraw it.
+- The coalescer collects updates and flushes them as ONE batch when either:
+    - the flush window has passed since the first pending update, or
+    - the number of pending updates reaches the threshold.
+- Observers receive the batch through `Observer.updateBatch()`. By default only the
+  latest status is shown; observers that need every ball can override it.
+- Structured updates are coalesced as ONE `MatchStatus`: the latest fields plus the
+  change masks of the whole window OR-ed together, delivered through `onStatus()`.
+- Switching between String and structured updates flushes what is pending first,
+  so the two kinds are still delivered in publishing order.
+- One timer thread serves every match, so it never delivers anything itself: a due
+  window is handed to the coalescer's own flush mailbox, drained on an executor.
+  A match whose observers are slow (e.g. with the sequential dispatcher) only delays
+  its own flushes - never the timer or another match.
+
+=======================================================================================
+*/
+
+class UpdateCoalescer {
+    // One timer thread shared by all coalescers - it only triggers flushes
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "coalescer-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Runs timed flushes by default. Each coalescer has at most one flush queued or running
+    // (see flushes), so without virtual threads this pool needs at most one thread per match.
+    private static final ExecutorService FLUSHES = defaultFlushExecutor();
+
+    private final long windowNanos;
+    private final int maxUpdates;
+    private final Consumer<List<String>> flushTarget;
+    private final Consumer<MatchStatus> statusTarget;
+    private final Mailbox<Runnable> flushes; // Timed flushes of this coalescer, one at a time
+
+    private final Object flushLock = new Object(); // Keeps batches in order across timer and publisher
+    private List<String> pending = new ArrayList<>(); // Guarded by this
+    private MatchStatus pendingStatus; // Coalesced structured update, guarded by this
+    private int pendingCount; // Updates in the current window, guarded by this
+    private long generation; // Bumped on every flush so stale timers do nothing
+
+    UpdateCoalescer(long window, TimeUnit unit, int maxUpdates,
+                    Consumer<List<String>> flushTarget, Consumer<MatchStatus> statusTarget) {
+        this(window, unit, maxUpdates, flushTarget, statusTarget, FLUSHES);
+    }
+
+    UpdateCoalescer(long window, TimeUnit unit, int maxUpdates, Consumer<List<String>> flushTarget,
+                    Consumer<MatchStatus> statusTarget, Executor flushExecutor) {
+        if (window <= 0 || maxUpdates <= 0) {
+            throw new IllegalArgumentException("window and maxUpdates must be positive");
+        }
+        this.windowNanos = unit.toNanos(window);
+        this.maxUpdates = maxUpdates;
+        this.flushTarget = flushTarget;
+        this.statusTarget = statusTarget;
+        this.flushes = new Mailbox<>(Runnable::run, flushExecutor);
+    }
+
+    void add(String status) {
+        if (hasPendingStatus()) {
+            flush(); // Keep structured updates ahead of this one
+        }
+        boolean full;
+        synchronized (this) {
+            pending.add(status);
+            full = added();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    // Coalesces a structured update - the status is copied, callers may reuse it
+    void add(MatchStatus status) {
+        if (hasPendingText()) {
+            flush(); // Keep String updates ahead of this one
+        }
+        boolean full;
+        synchronized (this) {
+            if (pendingStatus == null) {
+                pendingStatus = status.copy(); // Handed to the observers at flush, so never reused
+            } else {
+                int changes = pendingStatus.changes() | status.changes();
+                pendingStatus.copyFrom(status);
+                pendingStatus.setChanges(changes);
+            }
+            full = added();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    // Deliver whatever is pending right now
+    void flush() {
+        synchronized (flushLock) {
+            Object batch;
+            synchronized (this) {
+                batch = pendingCount == 0 ? null : takePending();
+            }
+            if (batch != null) {
+                deliver(batch);
+            }
+        }
+    }
+
+    // Runs on the timer thread - only hands the flush over, so other matches' timers stay on time
+    private void flushLater(long armedGeneration) {
+        try {
+            flushes.post(() -> flushIfCurrent(armedGeneration));
+        } catch (RejectedExecutionException e) {
+            // Executor shut down - the next update or flush() delivers what is pending
+        }
+    }
+
+    private void flushIfCurrent(long armedGeneration) {
+        synchronized (flushLock) {
+            Object batch;
+            synchronized (this) {
+                if (armedGeneration != generation || pendingCount == 0) {
+                    return; // Already flushed by the count threshold
+                }
+                batch = takePending();
+            }
+            deliver(batch);
+        }
+    }
+
+    private static ExecutorService defaultFlushExecutor() {
+        ExecutorService virtualThreads = AsyncDispatcher.virtualThreadExecutor();
+        if (virtualThreads != null) {
+            return virtualThreads;
+        }
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "coalescer-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Counts one more pending update; returns whether the window is full. Caller holds this.
+    private boolean added() {
+        pendingCount++;
+        boolean full = pendingCount >= maxUpdates;
+        if (!full && pendingCount == 1) {
+            // First update of a new window - arm the timer
+            long armedGeneration = generation;
+            TIMER.schedule(() -> flushLater(armedGeneration), windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return full;
+    }
+
+    private synchronized boolean hasPendingStatus() {
+        return pendingStatus != null;
+    }
+
+    private synchronized boolean hasPendingText() {
+        return !pending.isEmpty();
+    }
+
+    // Either a List<String> batch or a coalesced MatchStatus - a window only holds one kind
+    private Object takePending() {
+        Object batch;
+        if (pendingStatus != null) {
+            batch = pendingStatus;
+            pendingStatus = null;
+        } else {
+            batch = Collections.unmodifiableList(pending);
+            pending = new ArrayList<>();
+        }
+        pendingCount = 0;
+        generation++;
+        return batch;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(Object batch) {
+        if (batch instanceof MatchStatus) {
+            statusTarget.accept((MatchStatus) batch);
+        } else {
+            flushTarget.accept((List<String>) batch);
+        }
+    }
+}
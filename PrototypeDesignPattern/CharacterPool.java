@@ -0,0 +1,106 @@
+/*
+ * -----------------------------------------------------------
+ * OBJECT POOL FOR CLONED CHARACTERS
+ * -----------------------------------------------------------
+ *
+ * During a wave the game spawns and despawns tens of thousands of
+ * characters per second. Cloning a new object every time keeps the
+ * garbage collector busy, so the pool reuses despawned characters:
+ *
+ * - spawn():   take a released character and reset it from the
+ *              prototype (resetFrom), or clone a new one if none is free.
+ * - release(): hand a character back once it has despawned.
+ *
+ * Free characters are kept in a small per-thread list first (no
+ * contention), and spill over into a shared, bounded global list.
+ * Hit-rate counters show how often spawns were served from the pool.
+ */
+
+package PrototypeDesignPattern;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+class CharacterPool {
+    private final int handle; // Interned key - spawn() does no string hashing
+    private final int localCapacity;
+    private final int globalCapacity;
+    private final ThreadLocal<ArrayDeque<GameCharacter>> local = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ConcurrentLinkedQueue<GameCharacter> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowSize = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Pool for the prototype registered under key
+    public CharacterPool(String key, int localCapacity, int globalCapacity) {
+        this.handle = CharacterRegistry.intern(key);
+        this.localCapacity = localCapacity;
+        this.globalCapacity = globalCapacity;
+    }
+
+    // Returns a character equal to a fresh clone of the prototype (null if the key is unknown)
+    public GameCharacter spawn() {
+        CharacterRegistry.Catalog catalog = CharacterRegistry.catalog();
+        GameCharacter prototype = catalog.prototype(handle);
+        if (prototype == null) {
+            return null;
+        }
+        if (prototype instanceof VariantPrototype) {
+            // Variants are resolved on every clone - they are not pooled
+            misses.increment();
+            return catalog.copyOf(prototype);
+        }
+        GameCharacter pooled = poll();
+        // After a hot reload the prototype may have a different class - such instances are dropped
+        while (pooled != null && pooled.getClass() != prototype.getClass()) {
+            pooled = poll();
+        }
+        if (pooled == null) {
+            misses.increment();
+            return prototype.clone();
+        }
+        hits.increment();
+        pooled.resetFrom(prototype);
+        return pooled;
+    }
+
+    // Hands a despawned character back - it must no longer be used by the caller
+    public void release(GameCharacter character) {
+        ArrayDeque<GameCharacter> free = local.get();
+        if (free.size() < localCapacity) {
+            free.push(character);
+        } else if (overflowSize.incrementAndGet() <= globalCapacity) {
+            overflow.offer(character);
+        } else {
+            overflowSize.decrementAndGet(); // Pool full - let the GC have it
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // Fraction of spawns served from the pool
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private GameCharacter poll() {
+        GameCharacter character = local.get().poll();
+        if (character == null) {
+            character = overflow.poll();
+            if (character != null) {
+                overflowSize.decrementAndGet();
+            }
+        }
+        return character;
+    }
+}
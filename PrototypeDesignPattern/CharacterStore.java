@@ -0,0 +1,201 @@
+/*
+ * -----------------------------------------------------------
+ * STRUCT-OF-ARRAYS CHARACTER STORE
+ * -----------------------------------------------------------
+ *
+ * With a million characters, one heap object per Orc/Troll means
+ * a million object headers and pointer chasing on every tick.
+ * The store keeps each field in its own column instead:
+ *
+ *   health[]    int   - current health
+ *   weaponId[]  short - index into an interned weapon table
+ *   typeTag[]   byte  - index into the character type table
+ *
+ * A character is just a row number. Systems that touch every
+ * character (e.g. damageAll) scan one column sequentially, which
+ * is cache friendly. Code that expects a GameCharacter gets a
+ * lightweight Handle (a flyweight view of one row).
+ *
+ * The store is not thread-safe: use one store per game loop.
+ */
+
+package PrototypeDesignPattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class CharacterStore {
+    private int[] health;
+    private short[] weaponId;
+    private byte[] typeTag;
+    private int size;
+
+    // Interned weapons and character types - rows store only their index
+    private final List<String> weapons = new ArrayList<>();
+    private final Map<String, Short> weaponIds = new HashMap<>();
+    private final List<Class<?>> types = new ArrayList<>();
+
+    public CharacterStore(int initialCapacity) {
+        health = new int[initialCapacity];
+        weaponId = new short[initialCapacity];
+        typeTag = new byte[initialCapacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Adds count copies of the prototype; returns the first row
+    public int spawn(GameCharacter prototype, int count) {
+        prototype = flatten(prototype);
+        ensureCapacity(size + count);
+        int first = size;
+        int hp = prototype.getHealth();
+        short weapon = internWeapon(prototype.getWeapon());
+        byte type = internType(prototype);
+        Arrays.fill(health, first, first + count, hp);
+        Arrays.fill(weaponId, first, first + count, weapon);
+        Arrays.fill(typeTag, first, first + count, type);
+        size += count;
+        return first;
+    }
+
+    // Tick-style bulk update: one sequential pass over the health column
+    public void damageAll(int amount) {
+        int[] hp = health;
+        for (int i = 0; i < size; i++) {
+            hp[i] = Math.max(0, hp[i] - amount);
+        }
+    }
+
+    public int health(int row) {
+        return health[row];
+    }
+
+    public void setHealth(int row, int value) {
+        health[row] = value;
+    }
+
+    public String weapon(int row) {
+        return weapons.get(weaponId[row]);
+    }
+
+    // GameCharacter view of one row
+    public Handle handle(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+        }
+        return new Handle(row);
+    }
+
+    // Flyweight: the state lives in the store, the handle only knows its row
+    final class Handle implements GameCharacter {
+        private final int row;
+
+        private Handle(int row) {
+            this.row = row;
+        }
+
+        public int row() {
+            return row;
+        }
+
+        // Cloning appends a copy of this row to the store
+        @Override
+        public GameCharacter clone() {
+            return handle(spawn(this, 1));
+        }
+
+        @Override
+        public void display() {
+            System.out.println(types.get(typeTag[row]).getSimpleName() + " with " + getWeapon() + ", Health: " + getHealth());
+        }
+
+        @Override
+        public String getWeapon() {
+            return weapon(row);
+        }
+
+        @Override
+        public int getHealth() {
+            return health[row];
+        }
+
+        @Override
+        public void setWeapon(String weapon) {
+            weaponId[row] = internWeapon(weapon);
+        }
+
+        @Override
+        public void setHealth(int value) {
+            health[row] = value;
+        }
+
+        @Override
+        public void resetFrom(GameCharacter prototype) {
+            prototype = flatten(prototype);
+            health[row] = prototype.getHealth();
+            weaponId[row] = internWeapon(prototype.getWeapon());
+            typeTag[row] = internType(prototype);
+        }
+
+        // Rows have no heavy state - loadouts are not stored in the columns (EMPTY is read-only)
+        @Override
+        public Loadout getLoadout() {
+            return Loadout.EMPTY;
+        }
+
+        @Override
+        public Loadout editLoadout() {
+            throw new UnsupportedOperationException("Store rows have no loadout");
+        }
+
+        // The type of the character this row was copied from
+        Class<?> characterType() {
+            return types.get(typeTag[row]);
+        }
+    }
+
+    // Variants are resolved once, so rows get the base's type and no getter walks the chain
+    private static GameCharacter flatten(GameCharacter prototype) {
+        return prototype instanceof VariantPrototype ? CharacterRegistry.catalog().copyOf(prototype) : prototype;
+    }
+
+    private short internWeapon(String weapon) {
+        Short id = weaponIds.get(weapon);
+        if (id == null) {
+            if (weapons.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct weapons");
+            }
+            id = (short) weapons.size();
+            weapons.add(weapon);
+            weaponIds.put(weapon, id);
+        }
+        return id;
+    }
+
+    private byte internType(GameCharacter prototype) {
+        Class<?> type = prototype instanceof Handle ? ((Handle) prototype).characterType() : prototype.getClass();
+        int tag = types.indexOf(type);
+        if (tag < 0) {
+            if (types.size() > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many character types");
+            }
+            tag = types.size();
+            types.add(type);
+        }
+        return (byte) tag;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > health.length) {
+            int newCapacity = Math.max(capacity, health.length * 2);
+            health = Arrays.copyOf(health, newCapacity);
+            weaponId = Arrays.copyOf(weaponId, newCapacity);
+            typeTag = Arrays.copyOf(typeTag, newCapacity);
+        }
+    }
+}
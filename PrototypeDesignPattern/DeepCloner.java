@@ -0,0 +1,334 @@
+/*
+ * -----------------------------------------------------------
+ * GENERIC DEEP CLONING FOR COMPOSITE PROTOTYPES
+ * -----------------------------------------------------------
+ *
+ * Hand-written clone() methods copy one class at a time and break
+ * down once a prototype holds a graph - e.g. equipment with
+ * attachments that point back at the item they are mounted on.
+ *
+ * DeepCloner.deepClone(prototype) copies any such graph:
+ *
+ * - A copy plan is built ONCE per class (cached in a ClassValue):
+ *   a no-argument constructor plus a single MethodHandle that copies
+ *   every field. Primitive and immutable fields are copied without
+ *   boxing; all other fields are deep-copied recursively.
+ * - An identity map remembers what has been copied already, so
+ *   shared references stay shared and cycles terminate. The map is
+ *   reused per thread, so it is not reallocated for every clone.
+ * - Arrays and the common JDK collections (ArrayList, LinkedList,
+ *   ArrayDeque, HashSet, LinkedHashSet, TreeSet, HashMap,
+ *   LinkedHashMap, TreeMap, EnumMap, ConcurrentHashMap) are copied
+ *   element by element into the SAME collection class. List.of /
+ *   Set.of / Map.of collections stay immutable. Other JDK collections
+ *   are rejected with an error rather than copied into a different type.
+ * - Immutable values (strings, boxed numbers, enums, lambdas) are
+ *   shared, never copied.
+ * - transient fields are not copied (they hold caches, e.g. the
+ *   read-only view of a Loadout) and keep whatever value the
+ *   no-argument constructor gives them.
+ *
+ * Classes must have a no-argument constructor (it may be private).
+ */
+
+package PrototypeDesignPattern;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+final class DeepCloner {
+    private DeepCloner() {
+    }
+
+    // Copies one kind of object; must register the copy before copying anything it references
+    private interface Copier {
+        Object copy(Object original, Map<Object, Object> copies);
+    }
+
+    private static final Copier SHARE = (original, copies) -> original;
+
+    // Marks an immutable collection whose elements are still being copied
+    private static final Object IN_PROGRESS = new Object();
+
+    // Collection classes that are copied into a new instance of exactly the same class
+    @SuppressWarnings("unchecked")
+    private static final Map<Class<?>, Copier> JDK_COLLECTIONS = Map.ofEntries(
+            Map.entry(ArrayList.class, collectionCopier(original -> new ArrayList<>(((Collection<?>) original).size()))),
+            Map.entry(LinkedList.class, collectionCopier(original -> new LinkedList<>())),
+            Map.entry(ArrayDeque.class, collectionCopier(original -> new ArrayDeque<>(((Collection<?>) original).size()))),
+            Map.entry(HashSet.class, collectionCopier(original -> new HashSet<>())),
+            Map.entry(LinkedHashSet.class, collectionCopier(original -> new LinkedHashSet<>())),
+            Map.entry(TreeSet.class, collectionCopier(original -> new TreeSet<>(((TreeSet<Object>) original).comparator()))),
+            Map.entry(HashMap.class, mapCopier(original -> new HashMap<>())),
+            Map.entry(LinkedHashMap.class, mapCopier(original -> new LinkedHashMap<>())),
+            Map.entry(TreeMap.class, mapCopier(original -> new TreeMap<>(((TreeMap<Object, ?>) original).comparator()))),
+            Map.entry(EnumMap.class, mapCopier(original -> new EnumMap<>((EnumMap) original))), // Keeps the key type
+            Map.entry(ConcurrentHashMap.class, mapCopier(original -> new ConcurrentHashMap<>())));
+
+    // One copier per class, built on first use
+    private static final ClassValue<Copier> COPIERS = new ClassValue<>() {
+        @Override
+        protected Copier computeValue(Class<?> type) {
+            if (isImmutable(type)) {
+                return SHARE;
+            }
+            if (type.isArray()) {
+                return type.getComponentType().isPrimitive() ? DeepCloner::copyPrimitiveArray : DeepCloner::copyObjectArray;
+            }
+            Copier collection = JDK_COLLECTIONS.get(type); // Exact class - subclasses take the field plan
+            if (collection != null) {
+                return collection;
+            }
+            if (type.getName().startsWith("java.util.ImmutableCollections$")) {
+                return DeepCloner::copyImmutableCollection; // List.of, Set.of, Map.of
+            }
+            if (type.getName().startsWith("java.") && (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type))) {
+                throw new IllegalArgumentException("Cannot deep-clone " + type.getName()
+                        + " - use one of " + JDK_COLLECTIONS.keySet() + " or an immutable collection");
+            }
+            return FieldPlan.of(type);
+        }
+    };
+
+    // Graphs up to this many objects reuse the per-thread identity map
+    private static final int REUSED_MAP_LIMIT = 4_096;
+
+    // Original -> copy, reused so steady-state cloning neither allocates nor resizes the map
+    private static final ThreadLocal<IdentityHashMap<Object, Object>> COPIES =
+            ThreadLocal.withInitial(IdentityHashMap::new);
+
+    // Returns a copy of the whole object graph reachable from original
+    @SuppressWarnings("unchecked")
+    public static <T> T deepClone(T original) {
+        IdentityHashMap<Object, Object> copies = COPIES.get();
+        if (!copies.isEmpty()) {
+            copies = new IdentityHashMap<>(); // Re-entrant call (e.g. from a constructor) - use a private map
+        }
+        try {
+            return (T) copy(original, copies);
+        } finally {
+            if (copies.size() > REUSED_MAP_LIMIT) {
+                COPIES.remove(); // Don't keep a huge table alive
+            }
+            copies.clear();
+        }
+    }
+
+    static Object copy(Object original, Map<Object, Object> copies) {
+        if (original == null) {
+            return null;
+        }
+        Copier copier = COPIERS.get(original.getClass());
+        if (copier == SHARE) {
+            return original;
+        }
+        Object copy = copies.get(original);
+        if (copy == null) {
+            return copier.copy(original, copies);
+        }
+        if (copy == IN_PROGRESS) {
+            throw new IllegalArgumentException("Cannot deep-clone a cycle through immutable " + original.getClass().getName());
+        }
+        return copy;
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type == String.class || type == Integer.class || type == Long.class || type == Short.class
+                || type == Byte.class || type == Character.class || type == Boolean.class
+                || type == Double.class || type == Float.class || type == BigInteger.class
+                || type == BigDecimal.class || type == UUID.class || type == Class.class
+                || Enum.class.isAssignableFrom(type)
+                || type.isHidden() || type.isSynthetic(); // Lambdas and method references
+    }
+
+    private static Object copyPrimitiveArray(Object original, Map<Object, Object> copies) {
+        int length = Array.getLength(original);
+        Object copy = Array.newInstance(original.getClass().getComponentType(), length);
+        System.arraycopy(original, 0, copy, 0, length);
+        copies.put(original, copy);
+        return copy;
+    }
+
+    private static Object copyObjectArray(Object original, Map<Object, Object> copies) {
+        Object[] copy = ((Object[]) original).clone();
+        copies.put(original, copy);
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = copy(copy[i], copies);
+        }
+        return copy;
+    }
+
+    private static Copier collectionCopier(Function<Object, Collection<Object>> factory) {
+        return (original, copies) -> {
+            Collection<Object> copy = factory.apply(original);
+            copies.put(original, copy);
+            for (Object element : (Collection<?>) original) {
+                copy.add(copy(element, copies));
+            }
+            return copy;
+        };
+    }
+
+    private static Copier mapCopier(Function<Object, Map<Object, Object>> factory) {
+        return (original, copies) -> {
+            Map<Object, Object> copy = factory.apply(original);
+            copies.put(original, copy);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) original).entrySet()) {
+                copy.put(copy(entry.getKey(), copies), copy(entry.getValue(), copies));
+            }
+            return copy;
+        };
+    }
+
+    // List.of / Set.of / Map.of - copied into a new immutable collection, or shared if no element changed
+    private static Object copyImmutableCollection(Object original, Map<Object, Object> copies) {
+        copies.put(original, IN_PROGRESS); // Can only be created once its elements exist
+        Object copy;
+        if (original instanceof Map) {
+            Map<?, ?> entries = (Map<?, ?>) original;
+            Object[] keys = entries.keySet().toArray();
+            Object[] values = new Object[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                values[i] = entries.get(keys[i]);
+            }
+            boolean changed = copyElements(keys, copies) | copyElements(values, copies);
+            if (changed) {
+                Map<Object, Object> map = new HashMap<>();
+                for (int i = 0; i < keys.length; i++) {
+                    map.put(keys[i], values[i]);
+                }
+                copy = Map.copyOf(map);
+            } else {
+                copy = original;
+            }
+        } else {
+            Object[] elements = ((Collection<?>) original).toArray();
+            if (!copyElements(elements, copies)) {
+                copy = original;
+            } else {
+                copy = original instanceof Set ? Set.of(elements) : List.of(elements);
+            }
+        }
+        copies.put(original, copy);
+        return copy;
+    }
+
+    // Replaces each element with its copy; returns whether any element was actually copied
+    private static boolean copyElements(Object[] elements, Map<Object, Object> copies) {
+        boolean changed = false;
+        for (int i = 0; i < elements.length; i++) {
+            Object copy = copy(elements[i], copies);
+            changed |= copy != elements[i];
+            elements[i] = copy;
+        }
+        return changed;
+    }
+
+    // Copy plan for an ordinary class: construct, then copy every instance field.
+    // All field copies are fused into ONE method handle, which the JIT compiles like a hand-written method.
+    private static final class FieldPlan implements Copier {
+        private static final MethodType COPY_FIELDS =
+                MethodType.methodType(void.class, Object.class, Object.class, Map.class);
+        private static final MethodHandle COPY_VALUE;
+
+        static {
+            try {
+                COPY_VALUE = MethodHandles.lookup().findStatic(DeepCloner.class, "copy",
+                        MethodType.methodType(Object.class, Object.class, Map.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final Class<?> type;
+        private final MethodHandle constructor; // () -> Object
+        private final MethodHandle copyFields;  // (copy, original, copies) -> void
+
+        private FieldPlan(Class<?> type, MethodHandle constructor, MethodHandle copyFields) {
+            this.type = type;
+            this.constructor = constructor;
+            this.copyFields = copyFields;
+        }
+
+        static FieldPlan of(Class<?> type) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                        .asType(MethodType.methodType(Object.class));
+                MethodHandle copyFields = MethodHandles.empty(COPY_FIELDS);
+                for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                    MethodHandles.Lookup declaring = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+                    for (Field field : c.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                            field.setAccessible(true); // Needed to write final fields
+                            copyFields = MethodHandles.foldArguments(copyFields, copyField(declaring, field));
+                        }
+                    }
+                }
+                return new FieldPlan(type, constructor, copyFields);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getName() + " needs a no-argument constructor to be deep-cloned", e);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new IllegalArgumentException("Cannot deep-clone " + type.getName(), e);
+            }
+        }
+
+        // (copy, original, copies) -> void for one field
+        private static MethodHandle copyField(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+            MethodHandle getter = lookup.unreflectGetter(field);  // (original) -> value
+            MethodHandle setter = lookup.unreflectSetter(field);  // (copy, value) -> void
+            Class<?> fieldType = field.getType();
+            MethodHandle copyField;
+            if (fieldType.isPrimitive() || (Modifier.isFinal(fieldType.getModifiers()) && isImmutable(fieldType))) {
+                // copy.field = original.field - no boxing, no recursion
+                copyField = MethodHandles.dropArguments(MethodHandles.filterArguments(setter, 1, getter), 2, Map.class);
+            } else {
+                // copy.field = DeepCloner.copy(original.field, copies)
+                MethodHandle copyValue = MethodHandles.filterArguments(COPY_VALUE, 0,
+                        getter.asType(MethodType.methodType(Object.class, field.getDeclaringClass())));
+                copyField = MethodHandles.collectArguments(
+                        setter.asType(MethodType.methodType(void.class, field.getDeclaringClass(), Object.class)), 1, copyValue);
+            }
+            return copyField.asType(COPY_FIELDS);
+        }
+
+        @Override
+        public Object copy(Object original, Map<Object, Object> copies) {
+            try {
+                Object copy = (Object) constructor.invokeExact();
+                copies.put(original, copy);
+                copyFields.invokeExact(copy, original, copies);
+                return copy;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Deep clone of " + type.getName() + " failed", e);
+            }
+        }
+    }
+}
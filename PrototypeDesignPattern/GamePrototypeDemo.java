@@ -27,36 +27,110 @@
  */
 
 package PrototypeDesignPattern;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 
 // STEP 1: Define a common interface for all game characters.
 // This interface extends Cloneable and declares clone() and display().
 interface GameCharacter extends Cloneable {
     GameCharacter clone();  // Clone the current object
     void display();         // Display the character's info
+    String getWeapon();
+    int getHealth();
+    void setWeapon(String weapon);
+    void setHealth(int health);
+    void resetFrom(GameCharacter prototype); // Reuse this instance as a fresh copy of the prototype
+
+    // Heavy state (inventory, skills, mesh) is shared copy-on-write between a prototype
+    // and its clones: getLoadout() never copies, editLoadout() copies it first if shared.
+    Loadout getLoadout();   // Read-only view
+    Loadout editLoadout();  // Private, modifiable loadout of this character
 }
 
 // STEP 2: Create a concrete prototype: Orc
 class Orc implements GameCharacter {
     private String weapon;
     private int health;
+    private CopyOnWrite<Loadout> loadout; // Shared with the prototype until modified
 
     // Default constructor with preset values
     public Orc() {
         this.weapon = "Axe";
         this.health = 100;
+        Loadout gear = new Loadout();
+        gear.inventory().add("Healing Potion");
+        gear.skills().put("Rage", 1);
+        gear.setMeshId("orc_mesh");
+        this.loadout = new CopyOnWrite<>(gear, Loadout::copy);
     }
 
     // Parameterized constructor (used internally for cloning)
     public Orc(String weapon, int health) {
         this.weapon = weapon;
         this.health = health;
+        this.loadout = new CopyOnWrite<>(new Loadout(), Loadout::copy);
+    }
+
+    // Copy constructor for cloning - the loadout is shared, not copied
+    private Orc(Orc source) {
+        this.weapon = source.weapon;
+        this.health = source.health;
+        this.loadout = source.loadout.share();
     }
 
     // Implements clone() by returning a new instance with the same state
     @Override
     public GameCharacter clone() {
-        return new Orc(this.weapon, this.health);
+        return new Orc(this);
+    }
+
+    @Override
+    public String getWeapon() {
+        return weapon;
+    }
+
+    @Override
+    public int getHealth() {
+        return health;
+    }
+
+    @Override
+    public void setWeapon(String weapon) {
+        this.weapon = weapon;
+    }
+
+    @Override
+    public void setHealth(int health) {
+        this.health = health;
+    }
+
+    // Copies the prototype's state into this (pooled) instance
+    @Override
+    public void resetFrom(GameCharacter prototype) {
+        this.weapon = prototype.getWeapon();
+        this.health = prototype.getHealth();
+        if (prototype.getClass() == getClass()) {
+            loadout.shareFrom(((Orc) prototype).loadout); // Reuses this instance's wrapper - no allocation
+        } else {
+            loadout = new CopyOnWrite<>(prototype.getLoadout().copy(), Loadout::copy);
+        }
+    }
+
+    @Override
+    public Loadout getLoadout() {
+        return loadout.read().readOnly();
+    }
+
+    @Override
+    public Loadout editLoadout() {
+        return loadout.write();
     }
 
     // Display Orc details
@@ -70,23 +144,78 @@ class Orc implements GameCharacter {
 class Troll implements GameCharacter {
     private String weapon;
     private int health;
+    private CopyOnWrite<Loadout> loadout; // Shared with the prototype until modified
 
     // Default constructor
     public Troll() {
         this.weapon = "Club";
         this.health = 150;
+        Loadout gear = new Loadout();
+        gear.skills().put("Regeneration", 1);
+        gear.setMeshId("troll_mesh");
+        this.loadout = new CopyOnWrite<>(gear, Loadout::copy);
     }
 
     // Parameterized constructor for cloning
     public Troll(String weapon, int health) {
         this.weapon = weapon;
         this.health = health;
+        this.loadout = new CopyOnWrite<>(new Loadout(), Loadout::copy);
+    }
+
+    // Copy constructor for cloning - the loadout is shared, not copied
+    private Troll(Troll source) {
+        this.weapon = source.weapon;
+        this.health = source.health;
+        this.loadout = source.loadout.share();
     }
 
     // Clone method to return a new Troll with the same state
     @Override
     public GameCharacter clone() {
-        return new Troll(this.weapon, this.health);
+        return new Troll(this);
+    }
+
+    @Override
+    public String getWeapon() {
+        return weapon;
+    }
+
+    @Override
+    public int getHealth() {
+        return health;
+    }
+
+    @Override
+    public void setWeapon(String weapon) {
+        this.weapon = weapon;
+    }
+
+    @Override
+    public void setHealth(int health) {
+        this.health = health;
+    }
+
+    // Copies the prototype's state into this (pooled) instance
+    @Override
+    public void resetFrom(GameCharacter prototype) {
+        this.weapon = prototype.getWeapon();
+        this.health = prototype.getHealth();
+        if (prototype.getClass() == getClass()) {
+            loadout.shareFrom(((Troll) prototype).loadout); // Reuses this instance's wrapper - no allocation
+        } else {
+            loadout = new CopyOnWrite<>(prototype.getLoadout().copy(), Loadout::copy);
+        }
+    }
+
+    @Override
+    public Loadout getLoadout() {
+        return loadout.read().readOnly();
+    }
+
+    @Override
+    public Loadout editLoadout() {
+        return loadout.write();
     }
 
     // Display Troll details
@@ -98,19 +227,292 @@ class Troll implements GameCharacter {
 
 // STEP 4: Registry class that holds prototypes
 // This simulates a "factory" from which we get clones instead of new objects.
+// Game servers read it from many threads while designers hot-reload prototypes, so the
+// prototypes live in an immutable, versioned Catalog that is swapped atomically:
+// readers never lock, and a spawn that uses one Catalog never sees a half-applied reload.
 class CharacterRegistry {
-    // A map to store prototypes by name
-    private static HashMap<String, GameCharacter> prototypes = new HashMap<>();
+    // Immutable snapshot of all prototypes plus the version it was published as
+    static final class Catalog {
+        private final GameCharacter[] byHandle; // Registered prototypes, indexed by interned key handle
+        private final long version;
+        // Prototypes not in the map are decoded from the snapshot on first use and cached by handle
+        private final PrototypeSnapshot snapshot;
+        private final AtomicReference<GameCharacter[]> decoded;
 
-    // Adds a prototype to the registry
+        private Catalog(GameCharacter[] byHandle, long version) {
+            this(byHandle, version, null, null);
+        }
+
+        // byHandle is owned by the catalog from now on - never modified again
+        private Catalog(GameCharacter[] byHandle, long version,
+                        PrototypeSnapshot snapshot, AtomicReference<GameCharacter[]> decoded) {
+            this.byHandle = byHandle;
+            this.version = version;
+            this.snapshot = snapshot;
+            this.decoded = decoded;
+        }
+
+        // The next version with the given prototypes added - one array copy, no rehashing
+        private Catalog with(Map<String, GameCharacter> added) {
+            GameCharacter[] table = withPrototypes(byHandle, added);
+            // Keeps the snapshot (and what was decoded from it) - registered prototypes take precedence
+            return new Catalog(table, version + 1, snapshot, decoded);
+        }
+
+        public long version() {
+            return version;
+        }
+
+        // The registered prototype itself - must not be modified
+        GameCharacter prototype(String key) {
+            int handle = handleOf(key);
+            if (handle >= 0) {
+                return prototype(handle);
+            }
+            // Never interned, so only an undecoded snapshot entry can match
+            return snapshot != null ? decode(key) : null;
+        }
+
+        // Array-indexed lookup - no string hashing
+        GameCharacter prototype(int handle) {
+            GameCharacter[] table = byHandle;
+            GameCharacter prototype = handle >= 0 && handle < table.length ? table[handle] : null;
+            if (prototype == null && snapshot != null && handle >= 0) {
+                GameCharacter[] cache = decoded.get();
+                prototype = handle < cache.length ? cache[handle] : null;
+                String key = prototype == null ? keyOf(handle) : null;
+                if (key != null) {
+                    prototype = decode(key);
+                }
+            }
+            return prototype;
+        }
+
+        // Decodes key from the snapshot once and publishes it in the handle-indexed cache
+        private GameCharacter decode(String key) {
+            GameCharacter prototype = snapshot.decode(key);
+            if (prototype == null) {
+                return null;
+            }
+            int handle = intern(key);
+            GameCharacter[] current;
+            GameCharacter[] next;
+            do {
+                current = decoded.get();
+                if (handle < current.length && current[handle] != null) {
+                    return current[handle]; // Another thread decoded it first
+                }
+                next = Arrays.copyOf(current, Math.max(handle + 1, current.length));
+                next[handle] = prototype;
+            } while (!decoded.compareAndSet(current, next));
+            return prototype;
+        }
+
+        // Retrieves a clone of the prototype by key, as of this catalog version
+        public GameCharacter getPrototype(String key) {
+            GameCharacter prototype = prototype(key);
+            return prototype != null ? copyOf(prototype) : null;
+        }
+
+        // Retrieves a clone of the prototype by handle (see CharacterRegistry.intern)
+        public GameCharacter getPrototype(int handle) {
+            GameCharacter prototype = prototype(handle);
+            return prototype != null ? copyOf(prototype) : null;
+        }
+
+        // Variants resolve their base in this catalog, not in whatever is current
+        GameCharacter copyOf(GameCharacter prototype) {
+            return prototype instanceof VariantPrototype ? ((VariantPrototype) prototype).cloneFrom(this) : prototype.clone();
+        }
+
+        // Fills out[offset .. offset+count) with clones - one lookup for the whole batch.
+        // Returns false if the key is unknown.
+        public boolean spawn(String key, GameCharacter[] out, int offset, int count) {
+            return spawn(prototype(key), out, offset, count);
+        }
+
+        public boolean spawn(int handle, GameCharacter[] out, int offset, int count) {
+            return spawn(prototype(handle), out, offset, count);
+        }
+
+        private boolean spawn(GameCharacter prototype, GameCharacter[] out, int offset, int count) {
+            if (prototype == null) {
+                return false;
+            }
+            if (count >= PARALLEL_SPAWN_THRESHOLD) {
+                // Very large armies are cloned on all cores
+                IntStream.range(offset, offset + count).parallel().forEach(i -> out[i] = copyOf(prototype));
+            } else {
+                for (int i = offset; i < offset + count; i++) {
+                    out[i] = copyOf(prototype);
+                }
+            }
+            return true;
+        }
+    }
+
+    // Batches at least this large are cloned in parallel
+    static final int PARALLEL_SPAWN_THRESHOLD = 50_000;
+
+    // Dense int handles for keys - assigned once, never reused, valid in every catalog version
+    private static final ConcurrentHashMap<String, Integer> handles = new ConcurrentHashMap<>();
+    private static volatile String[] keysByHandle = new String[16];
+    private static int handleCount; // Guarded by CharacterRegistry.class
+
+    // The current catalog - replaced as a whole on every change
+    private static final AtomicReference<Catalog> catalog =
+            new AtomicReference<>(new Catalog(new GameCharacter[0], 0));
+
+    // Turns a key into its int handle, assigning the next free one on first use.
+    // Look keys up once, outside the game loop, then spawn by handle.
+    public static int intern(String key) {
+        Integer handle = handles.get(key);
+        return handle != null ? handle : internNew(key);
+    }
+
+    private static synchronized int internNew(String key) {
+        Integer handle = handles.get(key);
+        if (handle == null) {
+            String[] keys = keysByHandle;
+            if (handleCount == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            keys[handleCount] = key;
+            keysByHandle = keys; // Volatile write publishes the new slot
+            handle = handleCount++;
+            handles.put(key, handle);
+        }
+        return handle;
+    }
+
+    // The handle of key, or -1 if it was never interned
+    public static int handleOf(String key) {
+        Integer handle = handles.get(key);
+        return handle != null ? handle : -1;
+    }
+
+    // The key of handle, or null if no such handle was handed out
+    static String keyOf(int handle) {
+        String[] keys = keysByHandle;
+        return handle >= 0 && handle < keys.length ? keys[handle] : null;
+    }
+
+    // Adds a prototype to the registry. Every call publishes a new catalog version (one copy of
+    // the handle table), so register many prototypes at once with addPrototypes or reload.
     public static void addPrototype(String key, GameCharacter prototype) {
-        prototypes.put(key, prototype);
+        addPrototypes(Collections.singletonMap(key, prototype));
+    }
+
+    // Adds several prototypes as ONE new catalog version
+    public static void addPrototypes(Map<String, GameCharacter> prototypes) {
+        prototypes.forEach(CharacterRegistry::checkVariant);
+        Catalog current;
+        Catalog next;
+        do {
+            current = catalog.get();
+            next = current.with(prototypes);
+        } while (!catalog.compareAndSet(current, next));
+    }
+
+    // Hot reload - replaces every prototype at once
+    public static void reload(Map<String, GameCharacter> prototypes) {
+        prototypes.forEach(CharacterRegistry::checkVariant);
+        GameCharacter[] table = withPrototypes(new GameCharacter[0], prototypes);
+        Catalog current;
+        do {
+            current = catalog.get();
+        } while (!catalog.compareAndSet(current, new Catalog(table, current.version + 1)));
+    }
+
+    // Copy of table with the prototypes stored at their handles
+    private static GameCharacter[] withPrototypes(GameCharacter[] table, Map<String, GameCharacter> prototypes) {
+        int length = table.length;
+        int[] handles = new int[prototypes.size()];
+        int i = 0;
+        for (String key : prototypes.keySet()) {
+            handles[i] = intern(key);
+            length = Math.max(length, handles[i++] + 1);
+        }
+        GameCharacter[] next = Arrays.copyOf(table, length);
+        i = 0;
+        for (GameCharacter prototype : prototypes.values()) { // Same iteration order as keySet()
+            next[handles[i++]] = prototype;
+        }
+        return next;
+    }
+
+    // Boot from a snapshot file: replaces every prototype, decoding them lazily from the mapped file
+    public static void loadSnapshot(Path file) throws IOException {
+        PrototypeSnapshot snapshot = PrototypeSnapshot.open(file);
+        Catalog current;
+        do {
+            current = catalog.get();
+        } while (!catalog.compareAndSet(current, new Catalog(new GameCharacter[0], current.version + 1,
+                snapshot, new AtomicReference<>(new GameCharacter[0]))));
+    }
+
+    // Writes every prototype of the current catalog to a snapshot file
+    public static void saveSnapshot(Path file) throws IOException {
+        Catalog current = catalog.get();
+        Map<String, GameCharacter> all = new HashMap<>();
+        if (current.snapshot != null) {
+            for (String key : current.snapshot.keys()) {
+                all.put(key, current.prototype(key));
+            }
+        }
+        GameCharacter[] registered = current.byHandle;
+        for (int handle = 0; handle < registered.length; handle++) {
+            if (registered[handle] != null) {
+                all.put(keyOf(handle), registered[handle]);
+            }
+        }
+        PrototypeSnapshot.write(file, all);
+    }
+
+    // A variant registered under its own base key could never be resolved
+    private static void checkVariant(String key, GameCharacter prototype) {
+        if (prototype instanceof VariantPrototype && ((VariantPrototype) prototype).baseKey().equals(key)) {
+            throw new IllegalArgumentException("Variant '" + key + "' cannot use itself as its base");
+        }
     }
 
     // Retrieves a clone of the prototype by key
     public static GameCharacter getPrototype(String key) {
-        GameCharacter prototype = prototypes.get(key);
-        return prototype != null ? prototype.clone() : null;
+        return catalog.get().getPrototype(key);
+    }
+
+    // Hot-path lookup: retrieves a clone of the prototype by interned handle
+    public static GameCharacter getPrototype(int handle) {
+        return catalog.get().getPrototype(handle);
+    }
+
+    // One cache per thread, for game loops that each run on their own thread
+    private static final ThreadLocal<PrototypeShardCache> localCache =
+            ThreadLocal.withInitial(PrototypeShardCache::new);
+
+    // Like getPrototype(handle), but clones from this thread's copy of the prototype
+    public static GameCharacter spawnLocal(int handle) {
+        return localCache.get().spawn(handle);
+    }
+
+    // Clones count characters in one call (null if the key is unknown)
+    public static GameCharacter[] spawn(String key, int count) {
+        GameCharacter[] army = new GameCharacter[count];
+        return catalog.get().spawn(key, army, 0, count) ? army : null;
+    }
+
+    public static GameCharacter[] spawn(int handle, int count) {
+        GameCharacter[] army = new GameCharacter[count];
+        return catalog.get().spawn(handle, army, 0, count) ? army : null;
+    }
+
+    // Current catalog - use it to spawn several characters from one consistent version
+    public static Catalog catalog() {
+        return catalog.get();
+    }
+
+    public static long version() {
+        return catalog.get().version;
     }
 }
 
@@ -131,6 +533,10 @@ public class GamePrototypeDemo {
         orc2.display();    // Output: Orc with Axe, Health: 100
         troll1.display();  // Output: Troll with Club, Health: 150
 
+        // STEP 5.4: Variants store only what differs from their base prototype
+        CharacterRegistry.addPrototype("orc_elite", new VariantPrototype("orc", "Great Axe", 250));
+        CharacterRegistry.getPrototype("orc_elite").display(); // Output: Orc with Great Axe, Health: 250
+
         // Each object is a separate instance (deep copy behavior)
     }
 }
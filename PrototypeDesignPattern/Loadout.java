@@ -0,0 +1,152 @@
+/*
+ * -----------------------------------------------------------
+ * COPY-ON-WRITE STATE FOR CLONES
+ * -----------------------------------------------------------
+ *
+ * Real prototypes carry heavy state - inventories, skill trees,
+ * mesh references - and most clones never change it. Copying it
+ * on every clone() wastes time and memory.
+ *
+ * - Loadout bundles that heavy state.
+ * - CopyOnWrite<T> lets a clone SHARE its prototype's Loadout.
+ *   The first time either side wants to modify it (write()), that
+ *   side gets its own private copy; readers (read()) never copy.
+ * - Characters hand out readOnly() views for reading, so a shared
+ *   Loadout cannot be changed behind the copy-on-write bookkeeping.
+ * - Meshes are immutable, so even a copied Loadout shares them.
+ */
+
+package PrototypeDesignPattern;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+// Heavy, rarely modified part of a character
+final class Loadout {
+    // Shared by everyone, so it is a read-only view - setMeshId() throws
+    static final Loadout EMPTY = new Loadout(Collections.emptyList(), Collections.emptyMap(), null).readOnly();
+
+    private final List<String> inventory;
+    private final Map<String, Integer> skills; // Skill name -> level
+    private String meshId; // Reference to an immutable, shared mesh asset
+    private final Loadout owner; // The loadout this is a read-only view of, or null
+    private transient Loadout readOnlyView; // Created on first use, then reused
+
+    Loadout() {
+        this(new ArrayList<>(), new HashMap<>(), null);
+    }
+
+    private Loadout(List<String> inventory, Map<String, Integer> skills, String meshId) {
+        this.inventory = inventory;
+        this.skills = skills;
+        this.meshId = meshId;
+        this.owner = null;
+    }
+
+    // Read-only view that follows the owner's changes
+    private Loadout(Loadout owner) {
+        this.inventory = Collections.unmodifiableList(owner.inventory);
+        this.skills = Collections.unmodifiableMap(owner.skills);
+        this.owner = owner;
+    }
+
+    // Unmodifiable view of this loadout - safe to hand out while it is shared
+    Loadout readOnly() {
+        if (owner != null) {
+            return this;
+        }
+        Loadout view = readOnlyView;
+        if (view == null) {
+            view = new Loadout(this); // Racing threads may each build one - they are equivalent
+            readOnlyView = view;
+        }
+        return view;
+    }
+
+    List<String> inventory() {
+        return inventory;
+    }
+
+    Map<String, Integer> skills() {
+        return skills;
+    }
+
+    String meshId() {
+        return owner != null ? owner.meshId : meshId;
+    }
+
+    void setMeshId(String meshId) {
+        if (owner != null) {
+            throw new UnsupportedOperationException("Read-only loadout");
+        }
+        this.meshId = meshId;
+    }
+
+    // Private copy of the collections; the mesh is shared
+    Loadout copy() {
+        return new Loadout(new ArrayList<>(inventory), new HashMap<>(skills), meshId());
+    }
+}
+
+// A value that is shared between a prototype and its clones until someone writes to it
+final class CopyOnWrite<T> {
+    private final UnaryOperator<T> copier;
+    private T value;
+    private volatile boolean shared;
+
+    CopyOnWrite(T value, UnaryOperator<T> copier) {
+        this(value, copier, false);
+    }
+
+    // For DeepCloner, which fills in the fields itself
+    private CopyOnWrite() {
+        this(null, null, false);
+    }
+
+    private CopyOnWrite(T value, UnaryOperator<T> copier, boolean shared) {
+        this.value = value;
+        this.copier = copier;
+        this.shared = shared;
+    }
+
+    // For reading only - the value may be shared with other characters
+    T read() {
+        return value;
+    }
+
+    // For modifying - copies the value first if it is still shared
+    T write() {
+        if (shared) {
+            value = copier.apply(value);
+            shared = false;
+        }
+        return value;
+    }
+
+    // A handle for a clone: both sides now copy before their next write
+    CopyOnWrite<T> share() {
+        markShared();
+        return new CopyOnWrite<>(value, copier, true);
+    }
+
+    // Like source.share(), but re-points this wrapper instead of allocating a new one
+    void shareFrom(CopyOnWrite<T> source) {
+        source.markShared();
+        value = source.value;
+        shared = true;
+    }
+
+    private void markShared() {
+        if (!shared) {
+            shared = true; // Only the first share writes - a hot prototype's cache line stays clean
+        }
+    }
+
+    boolean isShared() {
+        return shared;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * -----------------------------------------------------------
+ * PROTOTYPE SPAWNING BENCHMARKS
+ * -----------------------------------------------------------
+ *
+ * A small, dependency-free harness (run main) that compares ways of
+ * spawning characters from the registry. Each case is warmed up
+ * first and reports the average cost per spawned character.
+ *
+ * Numbers are meant for before/after comparisons on the same machine.
+ */
+
+package PrototypeDesignPattern;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class PrototypeBenchmark {
+    private static final int[] ARMY_SIZES = {100, 10_000, 1_000_000};
+
+    static volatile Object blackhole; // Keeps results alive so spawning is not optimised away
+
+    public static void main(String[] args) {
+        CharacterRegistry.addPrototypes(Map.of("orc", new Orc(), "troll", new Troll()));
+        bulkVersusLooped();
+        stringVersusHandle();
+        sharedVersusShardLocal();
+        copyOnWriteVersusEager();
+        deepCloneStrategies();
+        snapshotColdStart();
+    }
+
+    // Bulk spawn(key, count) against count calls to getPrototype(key)
+    static void bulkVersusLooped() {
+        System.out.println("== Bulk vs looped spawn (ns per character) ==");
+        System.out.printf("%10s %12s %12s%n", "army", "looped", "bulk");
+        for (int size : ARMY_SIZES) {
+            int rounds = Math.max(3, 5_000_000 / size);
+            double looped = measure(rounds, size, () -> {
+                GameCharacter[] army = new GameCharacter[size];
+                for (int i = 0; i < size; i++) {
+                    army[i] = CharacterRegistry.getPrototype("orc");
+                }
+                blackhole = army;
+            });
+            double bulk = measure(rounds, size, () -> blackhole = CharacterRegistry.spawn("orc", size));
+            System.out.printf("%10d %12.1f %12.1f%n", size, looped, bulk);
+        }
+    }
+
+    // getPrototype(String) against getPrototype(int) with a handle interned up front
+    static void stringVersusHandle() {
+        int count = 100_000;
+        int handle = CharacterRegistry.intern("orc");
+        double byKey = measure(20, count, () -> {
+            for (int i = 0; i < count; i++) {
+                blackhole = CharacterRegistry.getPrototype("orc");
+            }
+        });
+        double byHandle = measure(20, count, () -> {
+            for (int i = 0; i < count; i++) {
+                blackhole = CharacterRegistry.getPrototype(handle);
+            }
+        });
+        System.out.println("== Lookup by key vs by handle (ns per spawn) ==");
+        System.out.printf("%10s %12s%n", "key", "handle");
+        System.out.printf("%10.1f %12.1f%n", byKey, byHandle);
+    }
+
+    // One spawning thread per core: cloning the shared prototype vs each thread's own copy
+    static void sharedVersusShardLocal() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int count = 200_000;
+        int handle = CharacterRegistry.intern("orc");
+        double shared = measure(10, threads * count, () -> onAllThreads(threads, () -> {
+            for (int i = 0; i < count; i++) {
+                blackhole = CharacterRegistry.getPrototype(handle);
+            }
+        }));
+        double local = measure(10, threads * count, () -> onAllThreads(threads, () -> {
+            PrototypeShardCache shard = new PrototypeShardCache();
+            for (int i = 0; i < count; i++) {
+                blackhole = shard.spawn(handle);
+            }
+        }));
+        System.out.println("== Shared registry vs shard-local cache, " + threads + " threads (ns per spawn) ==");
+        System.out.printf("%10s %12s%n", "shared", "shard");
+        System.out.printf("%10.1f %12.1f%n", shared, local);
+    }
+
+    private static void onAllThreads(int threads, Runnable work) {
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(work);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Cloning a prototype with heavy state: sharing the loadout against copying it on every clone
+    static void copyOnWriteVersusEager() {
+        Orc heavy = new Orc();
+        Loadout gear = heavy.editLoadout();
+        for (int i = 0; i < 1_000; i++) {
+            gear.inventory().add("item-" + i);
+            gear.skills().put("skill-" + i, i);
+        }
+        int count = 10_000;
+        Runnable cow = () -> {
+            GameCharacter[] army = new GameCharacter[count];
+            for (int i = 0; i < count; i++) {
+                army[i] = heavy.clone();
+            }
+            blackhole = army;
+        };
+        Runnable eager = () -> {
+            GameCharacter[] army = new GameCharacter[count];
+            for (int i = 0; i < count; i++) {
+                army[i] = heavy.clone();
+                army[i].editLoadout(); // Forces the copy an eager clone() would make
+            }
+            blackhole = army;
+        };
+        System.out.println("== Copy-on-write vs eager clone, 1000-item loadout ==");
+        System.out.printf("%10s %12s %14s%n", "clone", "ns/clone", "bytes/clone");
+        System.out.printf("%10s %12.1f %14.0f%n", "cow", measure(20, count, cow), allocatedPerCall(count, cow));
+        System.out.printf("%10s %12.1f %14.0f%n", "eager", measure(20, count, eager), allocatedPerCall(count, eager));
+    }
+
+    // Composite prototype: every attachment points back at the item it is mounted on
+    static final class Equipment implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+        private int weight;
+        private int[] stats;
+        private Equipment mountedOn;
+        private List<Equipment> attachments = new ArrayList<>();
+
+        Equipment() {
+        }
+
+        Equipment(String name, int weight, Equipment mountedOn) {
+            this.name = name;
+            this.weight = weight;
+            this.stats = new int[] {weight, weight * 2, weight * 3};
+            this.mountedOn = mountedOn;
+            if (mountedOn != null) {
+                mountedOn.attachments.add(this);
+            }
+        }
+
+        // Hand-written deep copy - knows the shape of the graph
+        Equipment copy(Equipment newParent) {
+            Equipment copy = new Equipment();
+            copy.name = name;
+            copy.weight = weight;
+            copy.stats = stats.clone();
+            copy.mountedOn = newParent;
+            copy.attachments = new ArrayList<>(attachments.size());
+            for (Equipment attachment : attachments) {
+                copy.attachments.add(attachment.copy(copy));
+            }
+            return copy;
+        }
+    }
+
+    // Hand-written vs DeepCloner vs Java serialization on a 200-node equipment graph
+    static void deepCloneStrategies() {
+        Equipment armory = new Equipment("armory", 0, null);
+        for (int i = 0; i < 50; i++) {
+            Equipment rifle = new Equipment("rifle-" + i, i, armory);
+            for (int j = 0; j < 3; j++) {
+                new Equipment("scope-" + j, j, rifle);
+            }
+        }
+        int rounds = 2_000;
+        double handWritten = measure(rounds, 1, () -> blackhole = armory.copy(null));
+        double engine = measure(rounds, 1, () -> blackhole = DeepCloner.deepClone(armory));
+        double serialized = measure(rounds / 10, 1, () -> blackhole = serializationClone(armory));
+        System.out.println("== Deep clone of a 200-node graph (ns per graph) ==");
+        System.out.printf("%14s %14s %14s%n", "hand-written", "DeepCloner", "serialization");
+        System.out.printf("%14.0f %14.0f %14.0f%n", handWritten, engine, serialized);
+    }
+
+    // Boot time for a 10,000-template catalog when only a handful of templates are used
+    static void snapshotColdStart() {
+        int templates = 10_000;
+        int used = 10;
+        Map<String, GameCharacter> catalog = designerTemplates(templates);
+        try {
+            Path file = Files.createTempFile("prototypes", ".snapshot");
+            try {
+                CharacterRegistry.reload(catalog);
+                CharacterRegistry.saveSnapshot(file);
+                double eager = measure(20, 1, () -> {
+                    CharacterRegistry.reload(designerTemplates(templates));
+                    for (int i = 0; i < used; i++) {
+                        blackhole = CharacterRegistry.getPrototype("template-" + i);
+                    }
+                });
+                double mapped = measure(20, 1, () -> {
+                    try {
+                        CharacterRegistry.loadSnapshot(file);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    for (int i = 0; i < used; i++) {
+                        blackhole = CharacterRegistry.getPrototype("template-" + i);
+                    }
+                });
+                System.out.println("== Cold start, " + templates + " templates, " + used + " used (us) ==");
+                System.out.printf("%14s %14s%n", "build+reload", "mapped");
+                System.out.printf("%14.0f %14.0f%n", eager / 1_000, mapped / 1_000);
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Stand-in for designer-authored templates: each has a small loadout
+    private static Map<String, GameCharacter> designerTemplates(int count) {
+        Map<String, GameCharacter> templates = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            GameCharacter template = i % 2 == 0 ? new Orc("Axe-" + i, 100 + i) : new Troll("Club-" + i, 150 + i);
+            Loadout loadout = template.editLoadout();
+            for (int j = 0; j < 8; j++) {
+                loadout.inventory().add("item-" + j);
+                loadout.skills().put("skill-" + j, j);
+            }
+            loadout.setMeshId("mesh-" + i % 32);
+            templates.put("template-" + i, template);
+        }
+        return templates;
+    }
+
+    static Object serializationClone(Serializable original) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(original);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return in.readObject();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Bytes allocated by the current thread per character for one run of op
+    static double allocatedPerCall(int charactersPerRun, Runnable op) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        op.run();
+        return (threads.getCurrentThreadAllocatedBytes() - before) / (double) charactersPerRun;
+    }
+
+    // Average nanoseconds per character after warming up
+    static double measure(int rounds, int charactersPerRound, Runnable op) {
+        for (int i = 0; i < rounds; i++) {
+            op.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            op.run();
+        }
+        return (System.nanoTime() - start) / ((double) rounds * charactersPerRound);
+    }
+}
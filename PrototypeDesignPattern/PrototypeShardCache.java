@@ -0,0 +1,82 @@
+/*
+ * -----------------------------------------------------------
+ * PER-SHARD PROTOTYPE CACHES
+ * -----------------------------------------------------------
+ *
+ * Game servers run one simulation loop per core. If every loop
+ * clones straight from the shared registry, all cores keep touching
+ * the same prototype objects (clone() even marks their loadouts as
+ * shared), and those cache lines bounce between cores.
+ *
+ * A PrototypeShardCache belongs to ONE loop (shard):
+ *
+ * - The first spawn of a key copies the prototype into the shard.
+ *   Variants are resolved at that point, so the shard holds a flat
+ *   copy. Later spawns clone the shard's own copy - core-local memory.
+ * - Every spawn checks that the registry's current catalog is still
+ *   the version the cache was filled from (one read of a pointer that
+ *   only changes on reload). After a reload or addPrototype the cache
+ *   is dropped and refilled lazily, one key at a time.
+ *
+ * Not thread-safe: use one cache per loop (or CharacterRegistry.spawnLocal,
+ * which keeps one per thread).
+ */
+
+package PrototypeDesignPattern;
+
+import java.util.Arrays;
+
+class PrototypeShardCache {
+    private CharacterRegistry.Catalog catalog; // The catalog the cached copies were taken from
+    private GameCharacter[] prototypes = new GameCharacter[16]; // Shard-local copies, by handle
+    private long refreshes;
+
+    // Clone of the prototype with this handle (null if unknown)
+    public GameCharacter spawn(int handle) {
+        GameCharacter[] local = prototypes;
+        if (catalog == CharacterRegistry.catalog() && handle >= 0 && handle < local.length) {
+            GameCharacter prototype = local[handle];
+            if (prototype != null) {
+                return prototype.clone(); // Steady state: only shard-local memory
+            }
+        }
+        return spawnSlow(handle);
+    }
+
+    // Registry changed (new catalog version) or first spawn of this handle
+    private GameCharacter spawnSlow(int handle) {
+        if (catalog != CharacterRegistry.catalog()) {
+            refresh();
+        }
+        GameCharacter prototype = load(handle);
+        return prototype != null ? prototype.clone() : null;
+    }
+
+    // Number of times the cache was (re)started from a new registry version
+    public long refreshes() {
+        return refreshes;
+    }
+
+    private void refresh() {
+        catalog = CharacterRegistry.catalog();
+        Arrays.fill(prototypes, null);
+        refreshes++;
+    }
+
+    // Takes a shard-private copy of the prototype from the catalog
+    private GameCharacter load(int handle) {
+        if (handle < 0) {
+            return null;
+        }
+        GameCharacter shared = catalog.prototype(handle);
+        if (shared == null) {
+            return null;
+        }
+        GameCharacter local = catalog.copyOf(shared); // Flattens variants against the same catalog
+        if (handle >= prototypes.length) {
+            prototypes = Arrays.copyOf(prototypes, Math.max(handle + 1, prototypes.length * 2));
+        }
+        prototypes[handle] = local;
+        return local;
+    }
+}
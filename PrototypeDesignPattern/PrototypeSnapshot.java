@@ -0,0 +1,277 @@
+/*
+ * -----------------------------------------------------------
+ * MEMORY-MAPPED PROTOTYPE SNAPSHOTS
+ * -----------------------------------------------------------
+ *
+ * Creating and registering thousands of designer-authored templates
+ * one by one makes server start-up slow. Instead, the registry can
+ * be saved to a binary snapshot file and mapped into memory at boot:
+ *
+ * - open() only maps the file - nothing is decoded up front.
+ * - A prototype is decoded the first time its key is asked for
+ *   (binary search over a sorted key index), so cold start scales
+ *   with the templates actually used, not with the catalog size.
+ * - A one-byte type tag selects the class that is instantiated.
+ *
+ * File layout (big-endian):
+ *
+ *   header   int magic, int format version, int count
+ *   index    count x (int keyOffset, int recordOffset), sorted by key bytes
+ *   keys     int length + UTF-8 bytes, per key
+ *   records  byte typeTag, string weapon, int health,
+ *            int n + n strings (inventory),
+ *            int n + n x (string skill, int level),
+ *            string meshId (length -1 for none)
+ *   variant  byte typeTag, string baseKey, string weapon (-1 = inherit),
+ *            byte hasHealth, int health
+ */
+
+package PrototypeDesignPattern;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+final class PrototypeSnapshot {
+    private static final int MAGIC = 0x50534E50; // "PSNP"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int INDEX_ENTRY_BYTES = 8;
+
+    // Type tags - the first byte of every record
+    private static final byte ORC = 1;
+    private static final byte TROLL = 2;
+    private static final byte VARIANT = 3;
+
+    private final ByteBuffer data; // Read-only mapping; only absolute reads, so it is safe to share
+    private final int count;
+
+    private PrototypeSnapshot(ByteBuffer data) {
+        if (data.limit() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a prototype snapshot");
+        }
+        if (data.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot format version " + data.getInt(4));
+        }
+        this.data = data;
+        this.count = data.getInt(8);
+    }
+
+    // Maps the snapshot file into memory - O(1), prototypes are decoded on demand
+    public static PrototypeSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new PrototypeSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Decodes the prototype stored under key, or returns null if there is none
+    public GameCharacter decode(String key) {
+        int entry = find(key.getBytes(StandardCharsets.UTF_8));
+        return entry < 0 ? null : decodeRecord(data.getInt(indexEntry(entry) + 4));
+    }
+
+    // All keys in the snapshot (decodes the whole index)
+    public List<String> keys() {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(new Reader(data.getInt(indexEntry(i))).string());
+        }
+        return keys;
+    }
+
+    // Writes the prototypes to a snapshot file
+    public static void write(Path file, Map<String, GameCharacter> prototypes) throws IOException {
+        byte[][] keys = new byte[prototypes.size()][];
+        int n = 0;
+        for (String key : prototypes.keySet()) {
+            keys[n++] = key.getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.sort(keys, Arrays::compareUnsigned); // The same order find() searches in
+
+        int bodyStart = HEADER_BYTES + keys.length * INDEX_ENTRY_BYTES;
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        int[] keyOffsets = new int[keys.length];
+        int[] recordOffsets = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keyOffsets[i] = bodyStart + body.size();
+            body.writeInt(keys[i].length);
+            body.write(keys[i]);
+            recordOffsets[i] = bodyStart + body.size();
+            writeRecord(body, prototypes.get(new String(keys[i], StandardCharsets.UTF_8)));
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                out.writeInt(keyOffsets[i]);
+                out.writeInt(recordOffsets[i]);
+            }
+            bodyBytes.writeTo(out);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, GameCharacter prototype) throws IOException {
+        if (prototype instanceof VariantPrototype) {
+            // Only the overlay is stored - the base is its own record
+            VariantPrototype variant = (VariantPrototype) prototype;
+            out.writeByte(VARIANT);
+            writeString(out, variant.baseKey());
+            writeString(out, variant.weaponOverride());
+            out.writeBoolean(variant.healthOverride() != null);
+            out.writeInt(variant.healthOverride() != null ? variant.healthOverride() : 0);
+            return;
+        }
+        out.writeByte(typeTag(prototype));
+        writeString(out, prototype.getWeapon());
+        out.writeInt(prototype.getHealth());
+        Loadout loadout = prototype.getLoadout();
+        out.writeInt(loadout.inventory().size());
+        for (String item : loadout.inventory()) {
+            writeString(out, item);
+        }
+        out.writeInt(loadout.skills().size());
+        for (Map.Entry<String, Integer> skill : loadout.skills().entrySet()) {
+            writeString(out, skill.getKey());
+            out.writeInt(skill.getValue());
+        }
+        writeString(out, loadout.meshId());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte typeTag(GameCharacter prototype) {
+        if (prototype instanceof Orc) {
+            return ORC;
+        }
+        if (prototype instanceof Troll) {
+            return TROLL;
+        }
+        throw new IllegalArgumentException("No snapshot type tag for " + prototype.getClass().getName());
+    }
+
+    // The type tag selects the class to instantiate
+    private static GameCharacter newCharacter(byte tag, String weapon, int health) {
+        switch (tag) {
+            case ORC:
+                return new Orc(weapon, health);
+            case TROLL:
+                return new Troll(weapon, health);
+            default:
+                throw new IllegalStateException("Unknown type tag " + tag + " in snapshot");
+        }
+    }
+
+    private GameCharacter decodeRecord(int offset) {
+        Reader in = new Reader(offset);
+        byte tag = in.readByte();
+        if (tag == VARIANT) {
+            String baseKey = in.string();
+            String weapon = in.string();
+            boolean hasHealth = in.readByte() != 0;
+            int health = in.integer();
+            return new VariantPrototype(baseKey, weapon, hasHealth ? health : null);
+        }
+        GameCharacter prototype = newCharacter(tag, in.string(), in.integer());
+        Loadout loadout = prototype.editLoadout();
+        for (int i = in.integer(); i > 0; i--) {
+            loadout.inventory().add(in.string());
+        }
+        for (int i = in.integer(); i > 0; i--) {
+            loadout.skills().put(in.string(), in.integer());
+        }
+        loadout.setMeshId(in.string());
+        return prototype;
+    }
+
+    // Binary search over the sorted index; returns the entry number or -1
+    private int find(byte[] key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(data.getInt(indexEntry(mid)), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Compares the stored key at offset with key, without decoding it
+    private int compareKey(int offset, byte[] key) {
+        int length = data.getInt(offset);
+        int start = offset + 4;
+        for (int i = 0, n = Math.min(length, key.length); i < n; i++) {
+            int cmp = Byte.compareUnsigned(data.get(start + i), key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private static int indexEntry(int entry) {
+        return HEADER_BYTES + entry * INDEX_ENTRY_BYTES;
+    }
+
+    // Sequential decoding of one record with absolute reads
+    private final class Reader {
+        private int position;
+
+        Reader(int position) {
+            this.position = position;
+        }
+
+        byte readByte() {
+            return data.get(position++);
+        }
+
+        int integer() {
+            int value = data.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        String string() {
+            int length = integer();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            data.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * -----------------------------------------------------------
+ * VARIANT PROTOTYPES (OVERLAYS)
+ * -----------------------------------------------------------
+ *
+ * "orc", "orc_elite" and "orc_boss" differ in one or two fields.
+ * Registering each as a full object wastes memory, and a change to
+ * the orc has to be repeated for every variant.
+ *
+ * A VariantPrototype stores only a base key plus the fields it
+ * overrides (null = inherit from the base). It is resolved at clone
+ * time: the base is looked up in the CURRENT registry catalog,
+ * cloned, and the overrides are applied. Variants of variants are
+ * allowed; the chain is resolved from the base upwards.
+ *
+ *   CharacterRegistry.addPrototype("orc_elite", new VariantPrototype("orc", "Great Axe", 250));
+ */
+
+package PrototypeDesignPattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class VariantPrototype implements GameCharacter {
+    // Longer chains are treated as a cycle (e.g. "a" -> "b" -> "a")
+    private static final int MAX_CHAIN = 16;
+
+    private final String baseKey;
+    private final int baseHandle; // Interned baseKey, so resolving does no string hashing
+    private final String weapon;   // null = inherit
+    private final Integer health;  // null = inherit
+
+    public VariantPrototype(String baseKey, String weapon, Integer health) {
+        if (baseKey == null) {
+            throw new IllegalArgumentException("baseKey must not be null");
+        }
+        this.baseKey = baseKey;
+        this.baseHandle = CharacterRegistry.intern(baseKey);
+        this.weapon = weapon;
+        this.health = health;
+    }
+
+    public String baseKey() {
+        return baseKey;
+    }
+
+    // Clone of the base with this variant's overrides applied
+    @Override
+    public GameCharacter clone() {
+        return cloneFrom(CharacterRegistry.catalog());
+    }
+
+    // Resolves the whole chain against one catalog version
+    GameCharacter cloneFrom(CharacterRegistry.Catalog catalog) {
+        List<VariantPrototype> chain = new ArrayList<>(2);
+        GameCharacter base = this;
+        while (base instanceof VariantPrototype) {
+            VariantPrototype variant = (VariantPrototype) base;
+            base = variant.next(catalog, chain.size());
+            chain.add(variant);
+        }
+        GameCharacter copy = base.clone();
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            chain.get(i).applyTo(copy);
+        }
+        return copy;
+    }
+
+    // The prototype this variant overlays; depth is its position in the chain
+    private GameCharacter next(CharacterRegistry.Catalog catalog, int depth) {
+        if (depth == MAX_CHAIN) {
+            throw new IllegalStateException("Variant chain through '" + baseKey + "' is cyclic or too long");
+        }
+        GameCharacter base = catalog.prototype(baseHandle);
+        if (base == null) {
+            throw new IllegalStateException("Base prototype '" + baseKey + "' is not registered");
+        }
+        return base;
+    }
+
+    // The first non-variant prototype down the chain
+    private GameCharacter resolveBase(CharacterRegistry.Catalog catalog) {
+        GameCharacter current = this;
+        for (int depth = 0; current instanceof VariantPrototype; depth++) {
+            current = ((VariantPrototype) current).next(catalog, depth);
+        }
+        return current;
+    }
+
+    private void applyTo(GameCharacter copy) {
+        if (weapon != null) {
+            copy.setWeapon(weapon);
+        }
+        if (health != null) {
+            copy.setHealth(health);
+        }
+    }
+
+    // Overridden weapon, or null if inherited
+    String weaponOverride() {
+        return weapon;
+    }
+
+    // Overridden health, or null if inherited
+    Integer healthOverride() {
+        return health;
+    }
+
+    @Override
+    public void display() {
+        clone().display();
+    }
+
+    // Reading a field walks the chain once: the nearest override wins, otherwise the base's value
+    @Override
+    public String getWeapon() {
+        CharacterRegistry.Catalog catalog = CharacterRegistry.catalog();
+        GameCharacter current = this;
+        for (int depth = 0; current instanceof VariantPrototype; depth++) {
+            VariantPrototype variant = (VariantPrototype) current;
+            if (variant.weapon != null) {
+                return variant.weapon;
+            }
+            current = variant.next(catalog, depth);
+        }
+        return current.getWeapon();
+    }
+
+    @Override
+    public int getHealth() {
+        CharacterRegistry.Catalog catalog = CharacterRegistry.catalog();
+        GameCharacter current = this;
+        for (int depth = 0; current instanceof VariantPrototype; depth++) {
+            VariantPrototype variant = (VariantPrototype) current;
+            if (variant.health != null) {
+                return variant.health;
+            }
+            current = variant.next(catalog, depth);
+        }
+        return current.getHealth();
+    }
+
+    @Override
+    public void setWeapon(String weapon) {
+        throw new UnsupportedOperationException("Variants are immutable - register a new variant instead");
+    }
+
+    @Override
+    public void setHealth(int health) {
+        throw new UnsupportedOperationException("Variants are immutable - register a new variant instead");
+    }
+
+    // Variants are never pooled: clone() always produces an instance of the base class
+    @Override
+    public void resetFrom(GameCharacter prototype) {
+        throw new UnsupportedOperationException("Variants cannot be reset");
+    }
+
+    // The base's loadout - variants do not override heavy state
+    @Override
+    public Loadout getLoadout() {
+        return resolveBase(CharacterRegistry.catalog()).getLoadout(); // Already a read-only view
+    }
+
+    @Override
+    public Loadout editLoadout() {
+        throw new UnsupportedOperationException("Variants have no loadout of their own - edit the base prototype");
+    }
+}
@@ -0,0 +1,22 @@
+import java.util.Arrays;
+
+/*
+=======================================================================================
+🧠 JMH Entry Point
+
+- `java -jar target/benchmarks.jar [JMH options]` - the usual JMH command line
+  (`-l`, `-h`, `-lprof`, ... all work; it is passed on to JMH's own `Main`).
+- `-prof gc` is always added, so every result also reports the bytes allocated
+  per operation (`gc.alloc.rate.norm`) next to the time per operation.
+
+=======================================================================================
+*/
+
+class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        String[] withGc = Arrays.copyOf(args, args.length + 2);
+        withGc[args.length] = "-prof";
+        withGc[args.length + 1] = "gc";
+        org.openjdk.jmh.Main.main(withGc);
+    }
+}
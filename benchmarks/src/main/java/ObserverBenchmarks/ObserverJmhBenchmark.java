@@ -0,0 +1,172 @@
+/*
+ * -----------------------------------------------------------
+ * OBSERVER NOTIFICATION - JMH BENCHMARKS
+ * -----------------------------------------------------------
+ *
+ * The JMH version of ObserverBenchmark (notify latency, allocation
+ * per update, add/remove churn while notifying, sync vs async vs
+ * ring buffer delivery). Run through
+ * BenchmarkRunner, which adds the GC profiler:
+ *
+ *   java -jar target/benchmarks.jar ObserverJmhBenchmark
+ *
+ * The workloads are built by the default-package ObserverFixtures
+ * (see there for why); each benchmark just runs one of them.
+ */
+
+package ObserverBenchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObserverJmhBenchmark {
+
+    // Notify latency and allocation per update vs observer count
+    @State(Scope.Benchmark)
+    public static class Notify {
+        @Param({"1", "100", "10000", "1000000"})
+        public int observers;
+
+        Runnable arrayListLoop;
+        Runnable stringUpdates;
+        Runnable statusUpdates;
+
+        @Setup(Level.Trial)
+        public void setUp() throws ReflectiveOperationException {
+            arrayListLoop = (Runnable) fixture("arrayListLoop", observers);
+            stringUpdates = (Runnable) fixture("stringUpdates", observers);
+            statusUpdates = (Runnable) fixture("statusUpdates", observers);
+        }
+    }
+
+    // Sync vs async vs ring buffer - one state per fixture, since each starts delivery threads
+    // (stopped after the trial) and a million async mailboxes need most of a default heap
+    @State(Scope.Benchmark)
+    public abstract static class Delivery {
+        @Param({"1", "100", "10000", "1000000"})
+        public int observers;
+
+        Runnable workload;
+        private Runnable shutdown;
+
+        void setUp(String fixture) throws ReflectiveOperationException {
+            Runnable[] workloadAndShutdown = (Runnable[]) fixture(fixture, observers);
+            workload = workloadAndShutdown[0];
+            shutdown = workloadAndShutdown[1];
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            shutdown.run();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AsyncPublish extends Delivery {
+        @Setup(Level.Trial)
+        public void setUp() throws ReflectiveOperationException {
+            setUp("asyncPublish");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AsyncEndToEnd extends Delivery {
+        @Setup(Level.Trial)
+        public void setUp() throws ReflectiveOperationException {
+            setUp("asyncEndToEnd");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RingBufferEndToEnd extends Delivery {
+        @Setup(Level.Trial)
+        public void setUp() throws ReflectiveOperationException {
+            setUp("ringBufferEndToEnd");
+        }
+    }
+
+    // One match shared by the churn group's threads
+    @State(Scope.Group)
+    public static class Churn {
+        Runnable notify;
+        Runnable addRemove;
+
+        @Setup(Level.Trial)
+        public void setUp() throws ReflectiveOperationException {
+            Runnable[] workload = (Runnable[]) fixture("churn", 1_000);
+            notify = workload[0];
+            addRemove = workload[1];
+        }
+    }
+
+    @Benchmark
+    public void arrayListLoop(Notify state) {
+        state.arrayListLoop.run();
+    }
+
+    @Benchmark
+    public void iplMatchString(Notify state) {
+        state.stringUpdates.run();
+    }
+
+    @Benchmark
+    public void iplMatchStatus(Notify state) {
+        state.statusUpdates.run();
+    }
+
+    // Sequential dispatch is end-to-end by definition - compare with iplMatchString
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+    public void asyncPublish(AsyncPublish state) {
+        state.workload.run();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+    public void asyncEndToEnd(AsyncEndToEnd state) {
+        state.workload.run();
+    }
+
+    @Benchmark
+    public void ringBufferEndToEnd(RingBufferEndToEnd state) {
+        state.workload.run();
+    }
+
+    // Publisher cost while two other threads keep adding and removing observers
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void notifyUnderChurn(Churn state) {
+        state.notify.run();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(2)
+    public void addRemove(Churn state) {
+        state.addRemove.run();
+    }
+
+    private static Object fixture(String name, int observers) throws ReflectiveOperationException {
+        return Class.forName("ObserverFixtures").getMethod(name, int.class).invoke(null, observers);
+    }
+}
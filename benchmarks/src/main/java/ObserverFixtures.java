@@ -0,0 +1,141 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+=======================================================================================
+🧠 Observer Workloads for JMH
+
+- JMH only accepts benchmark classes that have a package, and a class in a package
+  cannot refer to the demo's default-package classes (`IplMatch`, `Observer`, ...).
+- This class sits in the default package and builds each workload as a plain
+  `Runnable` (or `{workload, shutdown}` for fixtures that start threads). `ObserverBenchmarks.ObserverJmhBenchmark` looks it up by name once per
+  trial, so the measured code is the demo's own notification path.
+
+=======================================================================================
+*/
+
+public class ObserverFixtures {
+    private static final String STATUS = "CSK: 150/3 IN 18 OVERS";
+
+    // Observer that only counts, so the benchmark measures the notification path itself
+    private static final class CountingObserver implements Observer {
+        private final LongAdder total; // Shared by the observers of an end-to-end fixture, or null
+        long count;
+
+        CountingObserver(LongAdder total) {
+            this.total = total;
+        }
+
+        @Override
+        public void update(String matchStatus) {
+            count++;
+            if (total != null) {
+                total.increment();
+            }
+        }
+
+        @Override
+        public void onStatus(MatchStatus status) {
+            count++;
+            if (total != null) {
+                total.increment();
+            }
+        }
+    }
+
+    // The classic loop over an ArrayList - the baseline
+    public static Runnable arrayListLoop(int observers) {
+        List<Observer> list = counting(observers, null);
+        return () -> {
+            for (Observer observer : list) {
+                observer.update(STATUS);
+            }
+        };
+    }
+
+    public static Runnable stringUpdates(int observers) {
+        IplMatch match = match(observers);
+        return () -> match.updateMatchScore(STATUS);
+    }
+
+    // Structured updates with a reused MatchStatus - allocation-free with sequential dispatch
+    public static Runnable statusUpdates(int observers) {
+        IplMatch match = match(observers);
+        MatchStatus status = new MatchStatus();
+        int csk = MatchStatus.teamId("CSK");
+        int[] runs = {0};
+        return () -> match.updateMatchStatus(status.score(csk, runs[0]++ & 0xFFFF, 3, 108));
+    }
+
+    // {notify, add+remove} on one shared match - run concurrently by the churn group
+    public static Runnable[] churn(int stableObservers) {
+        IplMatch match = match(stableObservers);
+        return new Runnable[] {
+            () -> match.updateMatchScore(STATUS),
+            () -> {
+                Observer observer = new CountingObserver(null);
+                match.addObserver(observer);
+                match.removeObserver(observer);
+            }
+        };
+    }
+
+    // {publish, shutdown} - publisher cost only; delivery runs on the dispatcher's executor.
+    // Observers the executor cannot keep up with drop their oldest updates (DROP_OLDEST).
+    public static Runnable[] asyncPublish(int observers) {
+        IplMatch match = new IplMatch();
+        ExecutorService executor = AsyncDispatcher.defaultExecutor();
+        match.setDispatcher(new AsyncDispatcher(executor, AsyncDispatcher.DEFAULT_QUEUE_CAPACITY));
+        match.addObservers(counting(observers, null));
+        return new Runnable[] {() -> match.updateMatchScore(STATUS), executor::shutdown};
+    }
+
+    // {publish and wait until every observer has it, shutdown} - end-to-end latency of one update
+    public static Runnable[] asyncEndToEnd(int observers) {
+        IplMatch match = new IplMatch();
+        ExecutorService executor = AsyncDispatcher.defaultExecutor();
+        match.setDispatcher(new AsyncDispatcher(executor, AsyncDispatcher.DEFAULT_QUEUE_CAPACITY));
+        LongAdder delivered = new LongAdder();
+        match.addObservers(counting(observers, delivered));
+        return new Runnable[] {() -> {
+            long expected = delivered.sum() + observers;
+            match.updateMatchScore(STATUS);
+            awaitCount(delivered, expected);
+        }, executor::shutdown};
+    }
+
+    // {publish and wait until every observer has it, shutdown} - the same through RingBufferMatch
+    public static Runnable[] ringBufferEndToEnd(int observers) {
+        RingBufferMatch ring = new RingBufferMatch(1024, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        LongAdder delivered = new LongAdder();
+        ring.addObservers(counting(observers, delivered));
+        return new Runnable[] {() -> {
+            long expected = delivered.sum() + observers;
+            ring.updateMatchScore(STATUS);
+            awaitCount(delivered, expected);
+        }, ring::shutdown};
+    }
+
+    private static IplMatch match(int observers) {
+        IplMatch match = new IplMatch();
+        match.addObservers(counting(observers, null)); // Bulk - one add per observer is quadratic at a million
+        return match;
+    }
+
+    private static List<Observer> counting(int observers, LongAdder total) {
+        List<Observer> list = new ArrayList<>(observers);
+        for (int i = 0; i < observers; i++) {
+            list.add(new CountingObserver(total));
+        }
+        return list;
+    }
+
+    // Yields rather than spins, so the delivery threads get the CPU on small machines too
+    private static void awaitCount(LongAdder counter, long expected) {
+        while (counter.sum() < expected) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * -----------------------------------------------------------
+ * PROTOTYPE SPAWNING - JMH BENCHMARKS
+ * -----------------------------------------------------------
+ *
+ * The JMH version of the bulk spawn and deep clone cases in
+ * PrototypeBenchmark. Run through BenchmarkRunner, which adds the
+ * GC profiler, so allocation per operation is reported as well:
+ *
+ *   java -jar target/benchmarks.jar PrototypeJmhBenchmark
+ */
+
+package PrototypeDesignPattern;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrototypeJmhBenchmark {
+
+    // Spawning an army: one getPrototype per character vs the bulk API
+    @State(Scope.Benchmark)
+    public static class Army {
+        @Param({"100", "10000"})
+        public int size;
+
+        int orc;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            CharacterRegistry.addPrototype("orc", new Orc());
+            orc = CharacterRegistry.handleOf("orc");
+        }
+    }
+
+    // The 200-node equipment graph of PrototypeBenchmark.deepCloneStrategies
+    @State(Scope.Benchmark)
+    public static class Armory {
+        PrototypeBenchmark.Equipment armory;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            armory = new PrototypeBenchmark.Equipment("armory", 0, null);
+            for (int i = 0; i < 50; i++) {
+                PrototypeBenchmark.Equipment rifle = new PrototypeBenchmark.Equipment("rifle-" + i, i, armory);
+                for (int j = 0; j < 3; j++) {
+                    new PrototypeBenchmark.Equipment("scope-" + j, j, rifle);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Object loopedSpawn(Army state) {
+        GameCharacter[] army = new GameCharacter[state.size];
+        for (int i = 0; i < army.length; i++) {
+            army[i] = CharacterRegistry.getPrototype("orc");
+        }
+        return army;
+    }
+
+    @Benchmark
+    public Object bulkSpawn(Army state) {
+        return CharacterRegistry.spawn("orc", state.size);
+    }
+
+    @Benchmark
+    public Object bulkSpawnByHandle(Army state) {
+        return CharacterRegistry.spawn(state.orc, state.size);
+    }
+
+    @Benchmark
+    public Object handWrittenClone(Armory state) {
+        return state.armory.copy(null);
+    }
+
+    @Benchmark
+    public Object deepCloner(Armory state) {
+        return DeepCloner.deepClone(state.armory);
+    }
+
+    @Benchmark
+    public Object serializationClone(Armory state) {
+        return PrototypeBenchmark.serializationClone(state.armory);
+    }
+}